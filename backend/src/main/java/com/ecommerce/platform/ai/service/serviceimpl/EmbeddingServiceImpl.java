@@ -3,6 +3,7 @@ package com.ecommerce.platform.ai.service.serviceimpl;
 import com.ecommerce.platform.ai.service.EmbeddingService;
 import com.ecommerce.platform.entity.Product;
 import com.ecommerce.platform.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -10,25 +11,65 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmbeddingServiceImpl implements EmbeddingService {
+    private static final int REFRESH_BATCH_SIZE = 100;
+    private static final int STALE_DELETE_BATCH_SIZE = 500;
+
     private final VectorStore vectorStore;
     private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
     @Value("${ai.vector.threshold}")
     private double threshold;
 
     @Value("${ai.vector.top-k}")
     private int topK;
+
+    @Value("${spring.ai.vectorstore.pgvector.schema:public}")
+    private String vectorSchema;
+
+    @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}")
+    private String vectorTable;
+
+    @Value("${ai.embedding.refresh.max-pending:50000}")
+    private int maxPendingRefresh;
+
+    // Id sản phẩm chờ re-embed (gộp trùng), chỉ một worker xử lý nên ONNX không chạy trên request thread
+    private final Set<Long> pendingRefresh = new LinkedHashSet<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ThreadPoolExecutor refreshWorker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            runnable -> {
+                Thread thread = new Thread(runnable, "embedding-refresh");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
     private Document toDocument(Product product) {
         return Document.builder()
+                .id(documentId(product.getId()))
                 .text(product.toEmbeddingText())
                 .metadata(Map.of(
                         "productId", product.getId(),
@@ -56,6 +97,83 @@ public class EmbeddingServiceImpl implements EmbeddingService {
         log.info("Embedding stored for product ID: {}", product.getId());
     }
 
+    /**
+     * Xếp hàng re-embed (ví dụ sau khi rating đổi) và trả về ngay. Worker nạp sản phẩm theo lô, tính embedding
+     * và ghi vector store ngoài mọi transaction của caller, nên gọi được cả từ afterCommit.
+     */
+    @Override
+    public void refreshProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        synchronized (pendingRefresh) {
+            for (Long id : productIds) {
+                if (pendingRefresh.size() >= maxPendingRefresh) {
+                    log.warn("Embedding refresh queue full ({} products), skipping the rest", maxPendingRefresh);
+                    break;
+                }
+                pendingRefresh.add(id);
+            }
+        }
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refreshWorker.execute(this::drainRefreshQueue);
+        }
+    }
+
+    private void drainRefreshQueue() {
+        while (true) {
+            List<Long> batch = takeRefreshBatch();
+            if (batch.isEmpty()) {
+                refreshScheduled.set(false);
+                // Id được thêm giữa lần lấy cuối và lúc hạ cờ: tự nhận lại việc nếu chưa ai nhận
+                if (hasPendingRefresh() && refreshScheduled.compareAndSet(false, true)) {
+                    continue;
+                }
+                return;
+            }
+            try {
+                List<Document> documents = productRepository.findAllByIdInWithGraph(batch).stream()
+                        .map(this::toDocument)
+                        .toList();
+                if (!documents.isEmpty()) {
+                    // PgVectorStore ghi đè theo id ổn định nên không sinh bản trùng
+                    vectorStore.add(documents);
+                }
+                log.debug("Refreshed embeddings for {} products", documents.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh embeddings for products {}: {}", batch, e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> takeRefreshBatch() {
+        synchronized (pendingRefresh) {
+            List<Long> batch = new ArrayList<>(Math.min(REFRESH_BATCH_SIZE, pendingRefresh.size()));
+            Iterator<Long> it = pendingRefresh.iterator();
+            while (it.hasNext() && batch.size() < REFRESH_BATCH_SIZE) {
+                batch.add(it.next());
+                it.remove();
+            }
+            return batch;
+        }
+    }
+
+    private boolean hasPendingRefresh() {
+        synchronized (pendingRefresh) {
+            return !pendingRefresh.isEmpty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshWorker.shutdownNow();
+    }
+
+    // Stable id per product so delete/add replaces the previous document instead of adding a duplicate
+    private String documentId(Long productId) {
+        return UUID.nameUUIDFromBytes(("product:" + productId).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
     @Override
     public void embedAllProducts() {
         log.info("Embedding all products...");
@@ -69,6 +187,36 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             vectorStore.add(documents);
             log.info("Generated embeddings for {}", documents.size());
         }
+        removeStaleDocuments();
+    }
+
+    /**
+     * Trước khi dùng id ổn định, mỗi lần embed tạo một document id ngẫu nhiên nên một sản phẩm có thể có nhiều bản.
+     * Xóa mọi document có metadata.productId mà id không phải id ổn định của sản phẩm đó (chạy lại vô hại).
+     */
+    private void removeStaleDocuments() {
+        List<String> staleIds;
+        try {
+            staleIds = jdbcTemplate.query(
+                    "SELECT id::text AS id, metadata->>'productId' AS product_id FROM \"" + vectorSchema + "\"." + vectorTable
+                            + " WHERE metadata->>'productId' IS NOT NULL",
+                    (rs, rowNum) -> {
+                        String id = rs.getString("id");
+                        String expected = documentId(Long.valueOf(rs.getString("product_id")));
+                        return id.equals(expected) ? null : id;
+                    }).stream()
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (DataAccessException | NumberFormatException e) {
+            log.warn("Could not scan vector store for stale product documents: {}", e.getMessage());
+            return;
+        }
+        for (int from = 0; from < staleIds.size(); from += STALE_DELETE_BATCH_SIZE) {
+            vectorStore.delete(staleIds.subList(from, Math.min(from + STALE_DELETE_BATCH_SIZE, staleIds.size())));
+        }
+        if (!staleIds.isEmpty()) {
+            log.info("Removed {} stale product documents from vector store", staleIds.size());
+        }
     }
 
     @Override
@@ -0,0 +1,30 @@
+package com.ecommerce.platform.config;
+
+import com.ecommerce.platform.monitoring.EntityHydrationCountingIntegrator;
+import com.ecommerce.platform.monitoring.JdbcTimingSessionListener;
+import com.ecommerce.platform.monitoring.QueryCountingStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Gắn các hook Hibernate phục vụ số liệu theo request (RequestMetricsFilter):
+ * đếm câu lệnh, đo thời gian JDBC và đếm entity được nạp.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingSessionListener.class.getName());
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new EntityHydrationCountingIntegrator()));
+        };
+    }
+}
@@ -80,6 +80,14 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(productService.getNewestProducts(limit)));
     }
 
+    @Operation(summary = "Get trending products", description = "Get best-selling products in the last 24h, 7d or 30d")
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getTrendingProducts(
+            @RequestParam(defaultValue = "7d") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getTrendingProducts(window, limit)));
+    }
+
     // ==================== STAFF/ADMIN ENDPOINTS ====================
 
     @Operation(summary = "Get all products for management", description = "Get all products including inactive (Staff/Admin only)")
@@ -1,24 +1,42 @@
 package com.ecommerce.platform.controller;
 
 import com.ecommerce.platform.dto.request.OrderStatusReport;
+import com.ecommerce.platform.dto.request.ReportExportJobRequest;
 import com.ecommerce.platform.dto.response.ApiResponse;
+import com.ecommerce.platform.dto.response.CategorySalesResponse;
+import com.ecommerce.platform.dto.response.DashboardResponse;
+import com.ecommerce.platform.dto.response.LowStockProductResponse;
+import com.ecommerce.platform.dto.response.PageResponse;
+import com.ecommerce.platform.dto.response.ReportJobResponse;
+import com.ecommerce.platform.dto.response.RevenueSeriesResponse;
+import com.ecommerce.platform.dto.response.TrendingProductResponse;
 import com.ecommerce.platform.entity.Order;
+import com.ecommerce.platform.exception.BadRequestException;
+import com.ecommerce.platform.security.UserPrincipal;
+import com.ecommerce.platform.service.DashboardService;
+import com.ecommerce.platform.service.ReportJobService;
+import com.ecommerce.platform.service.ReportRollupService;
 import com.ecommerce.platform.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.Year;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +48,25 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportRollupService reportRollupService;
+    private final DashboardService dashboardService;
+    private final ReportJobService reportJobService;
+
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/dashboard")
+    @Operation(summary = "Toàn bộ số liệu dashboard trong một request")
+    public ResponseEntity<ApiResponse<DashboardResponse>> getDashboard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "10") Integer threshold) {
+
+        int reportYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(
+                ApiResponse.success("Get dashboard successfully",
+                        dashboardService.getDashboard(from, to, reportYear, threshold))
+        );
+    }
 
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
     @GetMapping("/orders/status")
@@ -92,23 +129,122 @@ public class ReportController {
         );
     }
 
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/categories/sales")
+    @Operation(summary = "Doanh số theo cây danh mục (mỗi nút gồm cả danh mục con)")
+    public ResponseEntity<ApiResponse<List<CategorySalesResponse>>> getCategorySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(
+                ApiResponse.success("Get category sales successfully", dashboardService.getCategorySales(from, to))
+        );
+    }
+
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/revenue/series")
+    @Operation(summary = "Chuỗi doanh thu theo giờ/ngày/tuần/tháng, có thể tách theo trạng thái, phương thức hoặc danh mục")
+    public ResponseEntity<ApiResponse<RevenueSeriesResponse>> getRevenueSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String groupBy) {
+
+        return ResponseEntity.ok(
+                ApiResponse.success("Get revenue series successfully",
+                        reportService.getRevenueSeries(from, to, granularity, groupBy))
+        );
+    }
+
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
     @GetMapping("/orders/export")
-    public ResponseEntity<byte[]> exportOrders(
+    @Operation(summary = "Xuất danh sách đơn hàng (xlsx hoặc csv, csv có thể nén gzip)")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             @RequestParam int year,
             @RequestParam(required = false) Integer month,
-            @RequestParam(required = false) Order.OrderStatus status
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(defaultValue = "xlsx") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
     ) {
-        byte[] file = reportService.exportOrders(year, month, status);
+        // Kiểm tra trước khi trả StreamingResponseBody: lỗi trong lúc stream không còn đổi được status/header
+        if (year < 2000 || year > Year.now().getValue() + 1) {
+            throw new BadRequestException("Năm không hợp lệ: " + year);
+        }
+        if (month != null && (month < 1 || month > 12)) {
+            throw new BadRequestException("Tháng không hợp lệ: " + month);
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"xlsx".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Định dạng không hỗ trợ: " + format);
+        }
 
-        String fileName = String.format("orders_report_%d%s.xlsx",
+        String baseName = String.format("orders_report_%d%s",
                 year,
                 (month != null ? "_" + month : ""));
 
+        if (csv) {
+            // Dành cho data team: COPY ... TO STDOUT, stream thẳng ra response
+            StreamingResponseBody body = out -> reportService.exportOrdersCsv(year, month, status, gzip, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=" + baseName + (gzip ? ".csv.gz" : ".csv"))
+                    .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                            : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                    .body(body);
+        }
+
+        // Ghi thẳng workbook ra response, không giữ toàn bộ file trong bộ nhớ
+        StreamingResponseBody body = out -> reportService.exportOrders(year, month, status, out);
+
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + baseName + ".xlsx")
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(file);
+                .body(body);
+    }
+
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @PostMapping("/jobs")
+    @Operation(summary = "Tạo job xuất báo cáo chạy nền (dành cho file lớn)")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitExportJob(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody ReportExportJobRequest request) {
+
+        return ResponseEntity.accepted().body(
+                ApiResponse.success("Report job submitted", reportJobService.submitExport(principal.getId(), request))
+        );
+    }
+
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Xem tiến độ job xuất báo cáo")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getExportJob(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String jobId) {
+
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.getJob(jobId, principal.getId())));
+    }
+
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/jobs/{jobId}/download")
+    @Operation(summary = "Tải file báo cáo đã tạo xong")
+    public ResponseEntity<Resource> downloadExportJob(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String jobId) {
+
+        ReportJobResponse job = reportJobService.getJob(jobId, principal.getId());
+        Path file = reportJobService.getResultFile(jobId, principal.getId());
+
+        MediaType contentType = switch (job.getFormat()) {
+            case "csv" -> MediaType.parseMediaType("text/csv; charset=UTF-8");
+            case "csv.gz" -> MediaType.parseMediaType("application/gzip");
+            default -> MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        };
+
+        // FileSystemResource: file được stream từ đĩa (hỗ trợ cả Range), không nạp vào heap
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+                .contentType(contentType)
+                .body(new FileSystemResource(file));
     }
 
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
@@ -120,6 +256,17 @@ public class ReportController {
         );
     }
 
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/products/trending")
+    @Operation(summary = "Xếp hạng sản phẩm bán chạy trong 24h / 7 ngày / 30 ngày gần nhất")
+    public ResponseEntity<ApiResponse<List<TrendingProductResponse>>> getTrendingProducts(
+            @RequestParam(defaultValue = "7d") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Get trending products successfully", reportService.getTrendingProducts(window, limit))
+        );
+    }
+
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
     @GetMapping("/products/low-stock")
     @Operation(summary = "Lấy thông tin chi tiết sản phẩm sắp hết hàng")
@@ -133,4 +280,30 @@ public class ReportController {
         );
     }
 
+    @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
+    @GetMapping("/products/low-stock/list")
+    @Operation(summary = "Danh sách sản phẩm sắp hết hàng (phân trang, tồn kho tăng dần)")
+    public ResponseEntity<ApiResponse<PageResponse<LowStockProductResponse>>> getLowStockProducts(
+            @RequestParam(defaultValue = "10") Integer threshold,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(ApiResponse.success(PageResponse.of(
+                reportService.getLowStockProducts(threshold, PageRequest.of(page, size)))));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Tính lại bảng tổng hợp báo cáo theo ngày (backfill)")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        int rows = reportRollupService.rebuild(from, to);
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", rows);
+
+        return ResponseEntity.ok(ApiResponse.success("Rebuild report rollups successfully", data));
+    }
+
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.ecommerce.platform.controller;
 
+import com.ecommerce.platform.dto.request.BulkReviewActionRequest;
 import com.ecommerce.platform.dto.request.CreateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewStatusRequest;
 import com.ecommerce.platform.dto.response.ApiResponse;
+import com.ecommerce.platform.dto.response.BulkActionResponse;
 import com.ecommerce.platform.dto.response.PageResponse;
 import com.ecommerce.platform.dto.response.ReviewResponse;
 import com.ecommerce.platform.dto.response.ReviewStatisticsResponse;
@@ -16,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -164,6 +167,21 @@ public class ReviewController {
         return ResponseEntity.ok(ApiResponse.success("Review status updated successfully", review));
     }
 
+    @Operation(summary = "Bulk moderate reviews", description = "Hide, activate, delete or dismiss reports for many reviews by ID list or filter (Staff/Admin; delete is Admin only)")
+    @PostMapping("/management/bulk-action")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<ApiResponse<BulkActionResponse>> bulkModerate(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody BulkReviewActionRequest request) {
+        boolean isAdmin = principal.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if ("DELETE".equalsIgnoreCase(request.getAction()) && !isAdmin) {
+            throw new AccessDeniedException("Only admins can delete reviews");
+        }
+        BulkActionResponse result = reviewService.bulkModerate(request);
+        return ResponseEntity.ok(ApiResponse.success(result.getMessage(), result));
+    }
+
     @Operation(summary = "Admin delete review", description = "Delete any review (Admin only)")
     @DeleteMapping("/admin/{reviewId}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,43 @@
+package com.ecommerce.platform.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request DTO for bulk moderation on reviews.
+ * Targets either the given review IDs or, when no IDs are given, every review matching the filter
+ * (same filters as the review management list).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkReviewActionRequest {
+
+    private List<Long> reviewIds;
+
+    @NotBlank(message = "Action is required")
+    @Pattern(regexp = "^(HIDE|ACTIVATE|DELETE|DISMISS_REPORT)$",
+             message = "Action must be HIDE, ACTIVATE, DELETE or DISMISS_REPORT")
+    private String action;
+
+    // Filter (used only when reviewIds is empty)
+    private String status;
+    private Integer rating;
+    private Boolean isReplied;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+    private Long productId;
+    private Long categoryId;
+    private Boolean isReported;
+    private String search;
+
+    public boolean hasFilter() {
+        return (status != null && !status.isBlank()) || rating != null || isReplied != null
+                || dateFrom != null || dateTo != null || productId != null || categoryId != null
+                || isReported != null || (search != null && !search.isBlank());
+    }
+}
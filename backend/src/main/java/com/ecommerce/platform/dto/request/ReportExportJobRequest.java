@@ -0,0 +1,41 @@
+package com.ecommerce.platform.dto.request;
+
+import com.ecommerce.platform.entity.Order;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.Year;
+
+/**
+ * Request DTO for submitting an asynchronous order export job
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportExportJobRequest {
+
+    @NotNull(message = "Year is required")
+    @Min(value = 2000, message = "Year must be >= 2000")
+    private Integer year;
+
+    @Min(value = 1, message = "Month must be between 1 and 12")
+    @Max(value = 12, message = "Month must be between 1 and 12")
+    private Integer month;
+
+    private Order.OrderStatus status;
+
+    @Pattern(regexp = "^(?i)(xlsx|csv)$", message = "Format must be xlsx or csv")
+    private String format;
+
+    private boolean gzip;
+
+    // Giới hạn trên phụ thuộc năm hiện tại nên không khai báo được bằng @Max
+    @JsonIgnore
+    @AssertTrue(message = "Year must not be later than next year")
+    public boolean isYearWithinRange() {
+        return year == null || year <= Year.now().getValue() + 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.platform.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for sales per category node: own sales (products directly in the category)
+ * and subtree totals (the category plus all descendants)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySalesResponse {
+
+    private Long id;
+    private String name;
+    private Long parentId;
+
+    private long ownQuantity;
+    private BigDecimal ownRevenue;
+
+    private long quantity;
+    private BigDecimal revenue;
+
+    @Builder.Default
+    private List<CategorySalesResponse> children = new ArrayList<>();
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.platform.dto.response;
+
+import com.ecommerce.platform.dto.request.OrderStatusReport;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for the admin dashboard (all widgets in one request)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardResponse {
+
+    private List<OrderStatusReport> orderStatus;
+    private long totalOrders;
+    private BigDecimal totalRevenue;
+    private Map<String, Long> paymentStats;
+
+    private int year;
+    private Map<Integer, BigDecimal> monthlyRevenue;
+
+    private Map<String, Object> bestSeller;
+    private Map<String, Object> lowStock;
+
+    private List<CategorySalesResponse> categorySales;
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.platform.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockProductResponse {
+    private Long id;
+    private String name;
+    private String thumbnail;
+    private Integer stockQuantity;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.platform.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response DTO for revenue time series: bucket labels and one value array per series,
+ * all arrays aligned by index (empty buckets are 0)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueSeriesResponse {
+
+    private String granularity;
+    private String groupBy;
+    private LocalDate from;
+    private LocalDate to;
+
+    // Bucket start (ISO date, or ISO date-time for hour granularity)
+    private String[] buckets;
+
+    private List<Series> series;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Series {
+        private String key;
+        private double[] values;
+        private double total;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.platform.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendingProductResponse {
+    private Integer rank;
+    private Long id;
+    private String name;
+    private String thumbnail;
+    private String window;
+    private Integer windowSoldCount;
+    private Integer soldCount;
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Tổng hợp đơn hàng theo ngày, khóa theo (ngày, trạng thái đơn, trạng thái thanh toán, phương thức thanh toán).
+ * Được cập nhật tăng dần trong cùng transaction với thay đổi của Order/Payment (xem ReportRollupService).
+ * Payment không tồn tại được ghi là PENDING / NONE.
+ */
+@Entity
+@Table(name = "report_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_report_daily_rollup_key",
+                columnNames = { "report_date", "order_status", "payment_status", "payment_method" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyReportRollup {
+
+    public static final String NO_PAYMENT_METHOD = "NONE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate reportDate;
+
+    @Column(nullable = false, length = 20)
+    private String orderStatus;
+
+    @Column(nullable = false, length = 20)
+    private String paymentStatus;
+
+    @Column(nullable = false, length = 20)
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal taxAmount;
+
+    private LocalDateTime updatedAt;
+}
@@ -7,7 +7,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_order_created_status", columnList = "created_at, status"),
+        @Index(name = "idx_order_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_order_customer_status", columnList = "customer_id, status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
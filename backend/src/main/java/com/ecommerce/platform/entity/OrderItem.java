@@ -5,7 +5,9 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_item_order_product", columnList = "order_id, product_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payment_created_status", columnList = "created_at, status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
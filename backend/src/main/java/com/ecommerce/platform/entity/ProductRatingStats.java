@@ -0,0 +1,46 @@
+package com.ecommerce.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Histogram đánh giá của sản phẩm (chỉ tính review ACTIVE): số review theo từng mức 1..5, tổng điểm và tổng số.
+ * Được cập nhật tăng dần trong cùng transaction với thay đổi của Review (xem ProductRatingStatsService).
+ * Không có dòng nghĩa là sản phẩm chưa có review ACTIVE nào.
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRatingStats {
+
+    @Id
+    private Long productId;
+
+    @Column(name = "rating_1", nullable = false)
+    private Long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private Long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private Long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private Long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private Long rating5;
+
+    @Column(nullable = false)
+    private Long ratingSum;
+
+    @Column(nullable = false)
+    private Long ratingCount;
+
+    private LocalDateTime updatedAt;
+}
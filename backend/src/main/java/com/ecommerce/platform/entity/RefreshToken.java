@@ -5,7 +5,11 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_token_user_revoked", columnList = "user_id, revoked"),
+        @Index(name = "idx_refresh_token_expiry", columnList = "expiry_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,9 +21,15 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Token gốc chỉ có trong bộ nhớ (trả cho client); DB chỉ lưu SHA-256 hex của nó
+    @Transient
     private String token;
 
+    // Nullable để ddl-auto=update thêm được cột vào bảng đã có dữ liệu; dòng cũ được điền lúc khởi động
+    // (RefreshTokenServiceImpl.upgradeLegacyTokenColumn), V8 đặt NOT NULL
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
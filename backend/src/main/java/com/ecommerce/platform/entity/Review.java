@@ -4,9 +4,15 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_review_customer_product_order", columnList = "customer_id, product_id, order_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,15 +24,15 @@ public class Review {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private User customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
@@ -58,6 +64,10 @@ public class Review {
     @Column(columnDefinition = "TEXT")
     private String reportReason;
 
+    // Lowercased comment + product name + customer name for moderation search (trigram index, see V7)
+    @Column(columnDefinition = "TEXT")
+    private String searchDocument;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -65,6 +75,22 @@ public class Review {
             status = ReviewStatus.ACTIVE;
         if (isReported == null)
             isReported = false;
+        searchDocument = buildSearchDocument();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        searchDocument = buildSearchDocument();
+    }
+
+    // Same content as lower(concat_ws(' ', comment, product name, customer name)) in ReviewRepository
+    private String buildSearchDocument() {
+        return Stream.of(comment,
+                        product != null ? product.getName() : null,
+                        customer != null ? customer.getFullName() : null)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "))
+                .toLowerCase(Locale.ROOT);
     }
 
     public enum ReviewStatus {
@@ -1,6 +1,7 @@
 package com.ecommerce.platform.exception;
 
 import com.ecommerce.platform.dto.response.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,6 +17,7 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -112,6 +114,22 @@ public class GlobalExceptionHandler {
                                 .body(ApiResponse.error(message));
         }
 
+        // Hàng đợi giới hạn đã đầy (băm mật khẩu, job báo cáo): từ chối ngay thay vì giữ luồng request
+        @ExceptionHandler(RejectedExecutionException.class)
+        public ResponseEntity<ApiResponse<Void>> handleRejectedExecution(RejectedExecutionException ex) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(ApiResponse.error("Server is busy, please try again shortly"));
+        }
+
+        // Tác vụ nền quá thời gian / bị gián đoạn: tạm thời, client có thể thử lại
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ApiResponse<Void>> handleServiceUnavailable(ServiceUnavailableException ex) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "5")
+                                .body(ApiResponse.error(ex.getMessage()));
+        }
+
         @ExceptionHandler(Exception.class)
         public ResponseEntity<ApiResponse<Void>> handleGenericException(Exception ex) {
                 ex.printStackTrace(); // Log stack trace for debugging
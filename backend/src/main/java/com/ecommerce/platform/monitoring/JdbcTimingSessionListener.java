@@ -0,0 +1,40 @@
+package com.ecommerce.platform.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Cộng thời gian thực thi câu lệnh JDBC (kể cả batch) của session vào request hiện tại.
+ * Hibernate tạo một instance cho mỗi session (hibernate.session.events.auto).
+ */
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        RequestQueryContext context = RequestQueryContext.current();
+        if (context != null && start != 0) {
+            context.recordJdbcTime(System.nanoTime() - start);
+        }
+    }
+}
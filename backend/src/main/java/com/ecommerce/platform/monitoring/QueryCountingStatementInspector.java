@@ -0,0 +1,32 @@
+package com.ecommerce.platform.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Pattern;
+
+/**
+ * Đếm mọi câu SQL Hibernate chuẩn bị trong request hiện tại, gom theo dạng câu lệnh
+ * (bỏ khác biệt khoảng trắng, độ dài danh sách IN và literal số) để phát hiện N+1.
+ * Không thay đổi câu SQL.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryContext context = RequestQueryContext.current();
+        if (context != null) {
+            context.recordStatement(shapeOf(sql));
+        }
+        return sql;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+        return NUMBER_LITERAL.matcher(shape).replaceAll("N");
+    }
+}
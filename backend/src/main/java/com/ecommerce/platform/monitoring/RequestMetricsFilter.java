@@ -0,0 +1,110 @@
+package com.ecommerce.platform.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi số liệu theo endpoint (method + URI pattern) cho mỗi request: histogram độ trễ, số câu lệnh JDBC,
+ * thời gian JDBC, số entity Hibernate dựng và số byte cấp phát trên luồng request; xuất qua Micrometer
+ * (/actuator/metrics). Cảnh báo N+1 khi cùng một dạng câu lệnh chạy quá ngưỡng trong một request.
+ * Giới hạn cụ thể cho từng endpoint được kiểm tra trong RequestBudgetIntegrationTest, không chặn ở runtime.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedStatementThreshold;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${monitoring.n-plus-one.threshold:10}") int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.threadMXBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryContext context = RequestQueryContext.begin();
+        long allocatedBefore = threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBefore >= 0 ? threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore : -1;
+            RequestQueryContext.end();
+            record(request, response, context, elapsed, allocated);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response,
+                        RequestQueryContext context, long elapsedNanos, long allocatedBytes) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String status = Integer.toString(response.getStatus());
+
+        Timer.builder("app.request.latency")
+                .description("Request latency per endpoint")
+                .tags("method", method, "uri", uri, "status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("app.request.db.statements")
+                .description("JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(context.getStatementCount());
+        Timer.builder("app.request.db.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(context.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        // Entity Hibernate dựng từ kết quả (POST_LOAD), không phải số dòng JDBC: dòng scalar/DTO/native
+        // và dòng lặp do JOIN FETCH không được đếm
+        DistributionSummary.builder("app.request.db.entities.hydrated")
+                .description("Entities hydrated by Hibernate per request (not JDBC rows)")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(context.getEntitiesHydrated());
+
+        if (allocatedBytes >= 0) {
+            DistributionSummary.builder("app.request.allocated.bytes")
+                    .description("Bytes allocated on the request thread")
+                    .baseUnit("bytes")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(allocatedBytes);
+        }
+
+        for (Map.Entry<String, Integer> shape : context.getStatementShapes().entrySet()) {
+            if (shape.getValue() > repeatedStatementThreshold) {
+                meterRegistry.counter("app.request.db.n_plus_one", "method", method, "uri", uri).increment();
+                log.warn("Possible N+1 on {} {}: same statement executed {} times ({} statements total): {}",
+                        method, uri, shape.getValue(), context.getStatementCount(), shape.getKey());
+            }
+        }
+    }
+}
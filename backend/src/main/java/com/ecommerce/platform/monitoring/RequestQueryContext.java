@@ -0,0 +1,93 @@
+package com.ecommerce.platform.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Số liệu truy vấn của request đang chạy trên luồng hiện tại: số câu lệnh JDBC, số lần theo từng
+ * "dạng" câu lệnh (phát hiện N+1), thời gian thực thi JDBC và số entity được nạp.
+ * Chỉ tồn tại trong phạm vi RequestMetricsFilter; truy vấn ở luồng khác chỉ được tính khi task được bọc
+ * bằng {@link #propagate(Supplier)} (các task song song cùng ghi vào một context nên bộ đếm là atomic).
+ */
+public final class RequestQueryContext {
+
+    private static final ThreadLocal<RequestQueryContext> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+    private final AtomicLong entitiesHydrated = new AtomicLong();
+    private final Map<String, Integer> statementShapes = new ConcurrentHashMap<>();
+
+    private RequestQueryContext() {
+    }
+
+    static RequestQueryContext begin() {
+        RequestQueryContext context = new RequestQueryContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestQueryContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bọc task chạy trên pool riêng thay cho request hiện tại: câu lệnh của task được tính vào request đó.
+     * Byte cấp phát trên luồng của pool không được tính.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestQueryContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            RequestQueryContext previous = CURRENT.get();
+            CURRENT.set(context);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    void recordStatement(String shape) {
+        statementCount.incrementAndGet();
+        statementShapes.merge(shape, 1, Integer::sum);
+    }
+
+    void recordJdbcTime(long nanos) {
+        jdbcNanos.addAndGet(nanos);
+    }
+
+    void recordEntityHydrated() {
+        entitiesHydrated.incrementAndGet();
+    }
+
+    int getStatementCount() {
+        return statementCount.get();
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos.get();
+    }
+
+    long getEntitiesHydrated() {
+        return entitiesHydrated.get();
+    }
+
+    Map<String, Integer> getStatementShapes() {
+        return statementShapes;
+    }
+}
@@ -25,4 +25,8 @@ public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSp
 
     // Fetch children for multiple parent ids in a single call
     List<Category> findByParentIdIn(List<Long> parentIds);
+
+    // Lightweight (id, parentId, name) rows to build the whole tree in memory
+    @Query("SELECT c.id, p.id, c.name FROM Category c LEFT JOIN c.parent p")
+    List<Object[]> findTreeSnapshot();
 }
@@ -0,0 +1,118 @@
+package com.ecommerce.platform.repository;
+
+import com.ecommerce.platform.entity.DailyReportRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyReportRollupRepository extends JpaRepository<DailyReportRollup, Long> {
+
+    // ===== Incremental maintenance =====
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO "ecommerce-platform".report_daily_rollups
+                (report_date, order_status, payment_status, payment_method,
+                 order_count, subtotal, total_amount, tax_amount, updated_at)
+            VALUES (:reportDate, :orderStatus, :paymentStatus, :paymentMethod,
+                    :orderCount, :subtotal, :totalAmount, :taxAmount, now())
+            ON CONFLICT (report_date, order_status, payment_status, payment_method) DO UPDATE SET
+                order_count  = report_daily_rollups.order_count  + EXCLUDED.order_count,
+                subtotal     = report_daily_rollups.subtotal     + EXCLUDED.subtotal,
+                total_amount = report_daily_rollups.total_amount + EXCLUDED.total_amount,
+                tax_amount   = report_daily_rollups.tax_amount   + EXCLUDED.tax_amount,
+                updated_at   = now()
+            """, nativeQuery = true)
+    void applyDelta(@Param("reportDate") LocalDate reportDate,
+                    @Param("orderStatus") String orderStatus,
+                    @Param("paymentStatus") String paymentStatus,
+                    @Param("paymentMethod") String paymentMethod,
+                    @Param("orderCount") long orderCount,
+                    @Param("subtotal") BigDecimal subtotal,
+                    @Param("totalAmount") BigDecimal totalAmount,
+                    @Param("taxAmount") BigDecimal taxAmount);
+
+    // ===== Rebuild / backfill =====
+
+    @Modifying
+    @Query("DELETE FROM DailyReportRollup r WHERE r.reportDate >= :from AND r.reportDate < :to")
+    int deleteByReportDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO "ecommerce-platform".report_daily_rollups
+                (report_date, order_status, payment_status, payment_method,
+                 order_count, subtotal, total_amount, tax_amount, updated_at)
+            SELECT CAST(o.created_at AS date),
+                   o.status,
+                   COALESCE(p.status, 'PENDING'),
+                   COALESCE(p.method, 'NONE'),
+                   COUNT(*),
+                   COALESCE(SUM(o.subtotal), 0),
+                   COALESCE(SUM(o.total_amount), 0),
+                   COALESCE(SUM(o.tax_amount), 0),
+                   now()
+            FROM "ecommerce-platform".orders o
+            LEFT JOIN "ecommerce-platform".payments p ON p.order_id = o.id
+            WHERE o.created_at >= :from AND o.created_at < :to
+            GROUP BY CAST(o.created_at AS date), o.status, COALESCE(p.status, 'PENDING'), COALESCE(p.method, 'NONE')
+            """, nativeQuery = true)
+    int insertAggregatedFromOrders(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // ===== Report reads (half-open [from, to) over report_date) =====
+
+    @Query("SELECT r.orderStatus, SUM(r.orderCount) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to " +
+            "GROUP BY r.orderStatus")
+    List<Object[]> sumOrderCountByOrderStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.paymentStatus, SUM(r.orderCount) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to " +
+            "GROUP BY r.paymentStatus")
+    List<Object[]> sumOrderCountByPaymentStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to")
+    Long sumOrderCount(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to AND r.orderStatus = :orderStatus")
+    Long sumOrderCountForOrderStatus(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("orderStatus") String orderStatus);
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to")
+    BigDecimal sumTotalAmount(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT MONTH(r.reportDate), SUM(r.totalAmount) FROM DailyReportRollup r " +
+            "WHERE r.reportDate >= :from AND r.reportDate < :to " +
+            "AND r.paymentStatus = 'COMPLETED' " +
+            "GROUP BY MONTH(r.reportDate) ORDER BY MONTH(r.reportDate)")
+    List<Object[]> sumCompletedRevenueByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // (bucket, series, revenue) đã thanh toán; unit = day | week | month, groupBy = status | method | none
+    @Query(value = """
+            SELECT date_trunc(:unit, CAST(r.report_date AS timestamp)) AS bucket,
+                   CASE :groupBy WHEN 'status' THEN r.order_status
+                                 WHEN 'method' THEN r.payment_method
+                                 ELSE 'TOTAL' END AS series,
+                   SUM(r.total_amount)
+            FROM "ecommerce-platform".report_daily_rollups r
+            WHERE r.report_date >= :from AND r.report_date < :to
+              AND r.payment_status = 'COMPLETED'
+            GROUP BY bucket, series
+            ORDER BY bucket
+            """, nativeQuery = true)
+    List<Object[]> sumCompletedRevenueSeries(@Param("unit") String unit,
+                                             @Param("groupBy") String groupBy,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+}
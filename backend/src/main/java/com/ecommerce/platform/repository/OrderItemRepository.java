@@ -2,10 +2,58 @@ package com.ecommerce.platform.repository;
 
 import com.ecommerce.platform.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
+    // (product_id, giờ tính từ epoch, tổng số lượng) để nạp SalesTrendTracker
+    @Query(value = """
+            SELECT oi.product_id,
+                   CAST(FLOOR(EXTRACT(EPOCH FROM o.created_at) / 3600) AS BIGINT) AS sale_hour,
+                   SUM(oi.quantity)
+            FROM "ecommerce-platform".order_items oi
+            JOIN "ecommerce-platform".orders o ON o.id = oi.order_id
+            WHERE o.created_at >= :since AND o.status <> :excludedStatus
+            GROUP BY oi.product_id, sale_hour
+            """, nativeQuery = true)
+    List<Object[]> sumQuantityByProductAndHour(@Param("since") LocalDateTime since,
+                                               @Param("excludedStatus") String excludedStatus);
+
+    // (bucket, tên danh mục, doanh thu dòng hàng) của đơn đã thanh toán
+    @Query(value = """
+            SELECT date_trunc(:unit, o.created_at) AS bucket,
+                   c.name AS series,
+                   SUM(oi.total_price)
+            FROM "ecommerce-platform".order_items oi
+            JOIN "ecommerce-platform".orders o ON o.id = oi.order_id
+            JOIN "ecommerce-platform".payments p ON p.order_id = o.id
+            JOIN "ecommerce-platform".products pr ON pr.id = oi.product_id
+            JOIN "ecommerce-platform".categories c ON c.id = pr.category_id
+            WHERE o.created_at >= :from AND o.created_at < :to
+              AND p.status = 'COMPLETED'
+            GROUP BY bucket, series
+            ORDER BY bucket
+            """, nativeQuery = true)
+    List<Object[]> sumCompletedRevenueSeriesByCategory(@Param("unit") String unit,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
+
+    // (category_id, tổng số lượng, tổng doanh thu) của đơn đã thanh toán, theo danh mục gán trực tiếp cho sản phẩm
+    @Query("SELECT pr.category.id, SUM(oi.quantity), SUM(oi.totalPrice) FROM OrderItem oi " +
+            "JOIN oi.order o JOIN o.payment p JOIN oi.product pr " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+            "AND p.status = com.ecommerce.platform.entity.Payment.PaymentStatus.COMPLETED " +
+            "GROUP BY pr.category.id")
+    List<Object[]> sumCompletedSalesByCategory(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
 }
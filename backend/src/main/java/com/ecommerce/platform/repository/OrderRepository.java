@@ -2,10 +2,14 @@ package com.ecommerce.platform.repository;
 
 import com.ecommerce.platform.dto.request.OrderStatusReport;
 import com.ecommerce.platform.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,16 +17,25 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderCode(String orderCode);
 
+    // Trang đơn hàng JOIN sẵn khách và thanh toán: phía mappedBy của OneToOne không lazy được,
+    // nếu không sẽ thành một câu SELECT payments cho mỗi đơn
+    @EntityGraph(attributePaths = { "customer", "payment" })
     Page<Order> findByCustomerId(Long customerId, Pageable pageable);
 
+    @EntityGraph(attributePaths = { "customer", "payment" })
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
 
+    @Override
+    @EntityGraph(attributePaths = { "customer", "payment" })
+    Page<Order> findAll(Pageable pageable);
+
     List<Order> findByCustomerIdAndStatus(Long customerId, Order.OrderStatus status);
 
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
@@ -39,13 +52,18 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.customer.id = :customerId AND o.status = 'DELIVERED'")
     Long sumTotalAmountByCustomerId(@Param("customerId") Long customerId);
 
+    // ===== Reporting =====
+    // Every report filters on a half-open [from, to) range over created_at so that
+    // (created_at, status) / (status, created_at) indexes can be used. Never wrap
+    // created_at in YEAR()/MONTH() inside a WHERE clause.
+
     @Query("""
                 SELECT new com.ecommerce.platform.dto.request.OrderStatusReport(
                     o.status,
                     COUNT(o)
                 )
                 FROM Order o
-                WHERE o.createdAt BETWEEN :from AND :to
+                WHERE o.createdAt >= :from AND o.createdAt < :to
                   AND o.status IN :statuses
                 GROUP BY o.status
             """)
@@ -57,93 +75,115 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     long count();
 
-    long countByCreatedAtBetween(
+    long countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
             LocalDateTime from,
             LocalDateTime to
     );
 
     @Query("""
                 SELECT o FROM Order o
-                WHERE YEAR(o.createdAt) = :year
-                  AND MONTH(o.createdAt) = :month
+                WHERE o.createdAt >= :from AND o.createdAt < :to
                 ORDER BY o.createdAt DESC
             """)
-    List<Order> findOrdersByMonth(
-            @Param("year") int year,
-            @Param("month") int month
+    List<Order> findOrdersCreatedInRange(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
+    // Export: two variants instead of "(:status IS NULL OR ...)" so each gets its own plan.
+    // Forward-only cursor with customer/payment fetch-joined, must be consumed inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("""
                 SELECT o FROM Order o
-                WHERE YEAR(o.createdAt) = :year
-                ORDER BY o.createdAt DESC
+                JOIN FETCH o.customer
+                LEFT JOIN FETCH o.payment
+                WHERE o.createdAt >= :from AND o.createdAt < :to
+                ORDER BY o.createdAt
             """)
-    List<Order> findOrdersByYear(
-            @Param("year") int year
+    Stream<Order> streamOrdersForExport(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
-
-    @Query("SELECT o FROM Order o WHERE YEAR(o.createdAt) = :year " +
-            "AND (:month IS NULL OR MONTH(o.createdAt) = :month) " +
-            "AND (:status IS NULL OR o.status = :status)")
-    List<Order> findOrdersForExport(
-            @Param("year") int year,
-            @Param("month") Integer month,
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+                SELECT o FROM Order o
+                JOIN FETCH o.customer
+                LEFT JOIN FETCH o.payment
+                WHERE o.status = :status
+                  AND o.createdAt >= :from AND o.createdAt < :to
+                ORDER BY o.createdAt
+            """)
+    Stream<Order> streamOrdersForExportByStatus(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
             @Param("status") Order.OrderStatus status
     );
 
-    @Query("SELECT SUM(o.totalAmount) FROM Order o " +
-            "WHERE (:year IS NULL OR YEAR(o.createdAt) = :year) " +
-            "AND (:month IS NULL OR MONTH(o.createdAt) = :month) " +
-            "AND o.payment.status = com.ecommerce.platform.entity.Payment.PaymentStatus.COMPLETED")
-    BigDecimal calculateTotalRevenue(Integer year, Integer month);
-
     @Query("SELECT p.status, COUNT(p) FROM Payment p " +
-            "WHERE (:year IS NULL OR YEAR(p.createdAt) = :year) " +
-            "AND (:month IS NULL OR MONTH(p.createdAt) = :month) " +
+            "WHERE p.createdAt >= :from AND p.createdAt < :to " +
             "GROUP BY p.status")
-    List<Object[]> countPaymentStatusByDate(Integer year, Integer month);
-
-    @Query("SELECT MONTH(o.createdAt), SUM(o.totalAmount) FROM Order o " +
-            "WHERE YEAR(o.createdAt) = :year " +
-            "AND o.payment.status = com.ecommerce.platform.entity.Payment.PaymentStatus.COMPLETED " +
-            "GROUP BY MONTH(o.createdAt) " +
-            "ORDER BY MONTH(o.createdAt)")
-    List<Object[]> getMonthlyRevenueByYear(@Param("year") int year);
+    List<Object[]> countPaymentStatusByDate(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
 
     @Query("SELECT MONTH(o.createdAt), SUM(o.totalAmount) FROM Order o " +
-            "WHERE o.createdAt >= :startDate AND o.createdAt <= :endDate " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to " +
             "AND o.payment.status = com.ecommerce.platform.entity.Payment.PaymentStatus.COMPLETED " +
             "GROUP BY MONTH(o.createdAt) ORDER BY MONTH(o.createdAt)")
-    List<Object[]> getMonthlyRevenueByRange(@Param("startDate") LocalDateTime startDate,
-                                            @Param("endDate") LocalDateTime endDate);
+    List<Object[]> getMonthlyRevenueByRange(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
 
     @Query("SELECT SUM(o.totalAmount) FROM Order o " +
-            "WHERE o.createdAt >= :startDate AND o.createdAt <= :endDate " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to " +
             "AND o.payment.status = com.ecommerce.platform.entity.Payment.PaymentStatus.COMPLETED")
-    BigDecimal calculateRevenueByRange(@Param("startDate") LocalDateTime startDate,
-                                       @Param("endDate") LocalDateTime endDate);
+    BigDecimal calculateRevenueByRange(@Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
 
     @Query("""
     SELECT COALESCE(p.status, 'PENDING'), COUNT(o) 
     FROM Order o 
     LEFT JOIN o.payment p 
-    WHERE o.createdAt BETWEEN :startDate AND :endDate 
+    WHERE o.createdAt >= :from AND o.createdAt < :to 
     GROUP BY p.status
 """)
     List<Object[]> countPaymentStatusRange(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
     @Query("""
     SELECT SUM(o.totalAmount) 
     FROM Order o 
-    WHERE o.createdAt BETWEEN :startDate AND :endDate
+    WHERE o.createdAt >= :from AND o.createdAt < :to
 """)
     BigDecimal calculateTotalRevenueRange(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
+    // (bucket, series, revenue) của đơn đã thanh toán; dùng cho granularity = hour
+    @Query(value = """
+            SELECT date_trunc(:unit, o.created_at) AS bucket,
+                   CASE :groupBy WHEN 'status' THEN o.status
+                                 WHEN 'method' THEN p.method
+                                 ELSE 'TOTAL' END AS series,
+                   SUM(o.total_amount)
+            FROM "ecommerce-platform".orders o
+            JOIN "ecommerce-platform".payments p ON p.order_id = o.id
+            WHERE o.created_at >= :from AND o.created_at < :to
+              AND p.status = 'COMPLETED'
+            GROUP BY bucket, series
+            ORDER BY bucket
+            """, nativeQuery = true)
+    List<Object[]> sumCompletedRevenueSeries(@Param("unit") String unit,
+                                             @Param("groupBy") String groupBy,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
 }
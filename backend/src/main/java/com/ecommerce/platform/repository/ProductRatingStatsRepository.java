@@ -0,0 +1,102 @@
+package com.ecommerce.platform.repository;
+
+import com.ecommerce.platform.entity.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    // ===== Incremental maintenance =====
+
+    // delta = +1 khi một review ACTIVE với mức "rating" xuất hiện, -1 khi nó biến mất
+    @Modifying
+    @Query(value = """
+            INSERT INTO "ecommerce-platform".product_rating_stats
+                (product_id, rating_1, rating_2, rating_3, rating_4, rating_5, rating_sum, rating_count, updated_at)
+            VALUES (:productId,
+                    CASE WHEN :rating = 1 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 2 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 3 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 4 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 5 THEN :delta ELSE 0 END,
+                    :rating * :delta, :delta, now())
+            ON CONFLICT (product_id) DO UPDATE SET
+                rating_1     = product_rating_stats.rating_1     + EXCLUDED.rating_1,
+                rating_2     = product_rating_stats.rating_2     + EXCLUDED.rating_2,
+                rating_3     = product_rating_stats.rating_3     + EXCLUDED.rating_3,
+                rating_4     = product_rating_stats.rating_4     + EXCLUDED.rating_4,
+                rating_5     = product_rating_stats.rating_5     + EXCLUDED.rating_5,
+                rating_sum   = product_rating_stats.rating_sum   + EXCLUDED.rating_sum,
+                rating_count = product_rating_stats.rating_count + EXCLUDED.rating_count,
+                updated_at   = now()
+            """, nativeQuery = true)
+    void applyDelta(@Param("productId") Long productId,
+                    @Param("rating") int rating,
+                    @Param("delta") int delta);
+
+    // Delta cho cả 5 mức trong một câu (bulk moderation: đã gộp theo sản phẩm)
+    @Modifying
+    @Query(value = """
+            INSERT INTO "ecommerce-platform".product_rating_stats
+                (product_id, rating_1, rating_2, rating_3, rating_4, rating_5, rating_sum, rating_count, updated_at)
+            VALUES (:productId, :d1, :d2, :d3, :d4, :d5,
+                    :d1 + 2 * :d2 + 3 * :d3 + 4 * :d4 + 5 * :d5,
+                    :d1 + :d2 + :d3 + :d4 + :d5,
+                    now())
+            ON CONFLICT (product_id) DO UPDATE SET
+                rating_1     = product_rating_stats.rating_1     + EXCLUDED.rating_1,
+                rating_2     = product_rating_stats.rating_2     + EXCLUDED.rating_2,
+                rating_3     = product_rating_stats.rating_3     + EXCLUDED.rating_3,
+                rating_4     = product_rating_stats.rating_4     + EXCLUDED.rating_4,
+                rating_5     = product_rating_stats.rating_5     + EXCLUDED.rating_5,
+                rating_sum   = product_rating_stats.rating_sum   + EXCLUDED.rating_sum,
+                rating_count = product_rating_stats.rating_count + EXCLUDED.rating_count,
+                updated_at   = now()
+            """, nativeQuery = true)
+    void applyHistogramDelta(@Param("productId") Long productId,
+                             @Param("d1") long d1, @Param("d2") long d2, @Param("d3") long d3,
+                             @Param("d4") long d4, @Param("d5") long d5);
+
+    // ===== Reconciliation =====
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO "ecommerce-platform".product_rating_stats
+                (product_id, rating_1, rating_2, rating_3, rating_4, rating_5, rating_sum, rating_count, updated_at)
+            SELECT r.product_id,
+                   COUNT(*) FILTER (WHERE r.rating = 1),
+                   COUNT(*) FILTER (WHERE r.rating = 2),
+                   COUNT(*) FILTER (WHERE r.rating = 3),
+                   COUNT(*) FILTER (WHERE r.rating = 4),
+                   COUNT(*) FILTER (WHERE r.rating = 5),
+                   COALESCE(SUM(r.rating), 0),
+                   COUNT(*),
+                   now()
+            FROM "ecommerce-platform".reviews r
+            WHERE r.status = 'ACTIVE'
+            GROUP BY r.product_id
+            ON CONFLICT (product_id) DO UPDATE SET
+                rating_1     = EXCLUDED.rating_1,
+                rating_2     = EXCLUDED.rating_2,
+                rating_3     = EXCLUDED.rating_3,
+                rating_4     = EXCLUDED.rating_4,
+                rating_5     = EXCLUDED.rating_5,
+                rating_sum   = EXCLUDED.rating_sum,
+                rating_count = EXCLUDED.rating_count,
+                updated_at   = now()
+            """, nativeQuery = true)
+    int recomputeAll();
+
+    // Bỏ các dòng của sản phẩm không còn review ACTIVE nào
+    @Modifying
+    @Query(value = """
+            DELETE FROM "ecommerce-platform".product_rating_stats s
+            WHERE NOT EXISTS (SELECT 1 FROM "ecommerce-platform".reviews r
+                              WHERE r.product_id = s.product_id AND r.status = 'ACTIVE')
+            """, nativeQuery = true)
+    int deleteWithoutActiveReviews();
+}
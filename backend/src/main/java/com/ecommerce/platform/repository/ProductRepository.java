@@ -5,9 +5,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -255,6 +257,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.status = 'ACTIVE'")
         List<Product> findAllActiveWithCategory();
 
+        @EntityGraph(attributePaths = { "category" })
+        @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+        List<Product> findAllByIdInWithGraph(@Param("ids") Collection<Long> ids);
+
         // ===== Statistics =====
         // Count total active products
         long countByStatus(Product.ProductStatus status);
@@ -267,4 +273,37 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         List<Product> findTopBySoldCount(Pageable pageable);
 
         List<Product> findByStockQuantityLessThanAndStatusOrderByStockQuantityAsc(Integer threshold, Product.ProductStatus productStatus);
+
+        // ===== Rating (averageRating / totalReviews chép từ product_rating_stats) =====
+
+        // Một câu UPDATE nguyên tử, không đọc-sửa-ghi qua entity; sản phẩm không có dòng thống kê về 0
+        @Modifying
+        @Query(value = """
+                        UPDATE "ecommerce-platform".products p
+                        SET total_reviews  = COALESCE((SELECT s.rating_count FROM "ecommerce-platform".product_rating_stats s
+                                                       WHERE s.product_id = p.id), 0),
+                            average_rating = COALESCE((SELECT CASE WHEN s.rating_count > 0
+                                                                   THEN CAST(s.rating_sum AS double precision) / s.rating_count
+                                                                   ELSE 0 END
+                                                       FROM "ecommerce-platform".product_rating_stats s
+                                                       WHERE s.product_id = p.id), 0)
+                        WHERE p.id IN (:ids)
+                        """, nativeQuery = true)
+        int syncRatingFromStats(@Param("ids") Collection<Long> ids);
+
+        @Query(value = """
+                        SELECT p.id
+                        FROM "ecommerce-platform".products p
+                        LEFT JOIN "ecommerce-platform".product_rating_stats s ON s.product_id = p.id
+                        WHERE COALESCE(p.total_reviews, 0) <> COALESCE(s.rating_count, 0)
+                           OR ABS(COALESCE(p.average_rating, 0)
+                                  - CASE WHEN COALESCE(s.rating_count, 0) > 0
+                                         THEN CAST(s.rating_sum AS double precision) / s.rating_count
+                                         ELSE 0 END) > 1e-9
+                        """, nativeQuery = true)
+        List<Long> findIdsWithStaleRating();
+
+        // Snapshot nhẹ (id, name, thumbnail, stockQuantity) để nạp LowStockTracker
+        @Query("SELECT p.id, p.name, p.thumbnail, p.stockQuantity FROM Product p WHERE p.status = :status")
+        List<Object[]> findStockSnapshotByStatus(@Param("status") Product.ProductStatus status);
 }
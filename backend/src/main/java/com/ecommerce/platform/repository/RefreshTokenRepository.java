@@ -4,19 +4,50 @@ import com.ecommerce.platform.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     
     @Modifying
     @Query("DELETE FROM RefreshToken r WHERE r.user.id = :userId")
     void deleteByUserId(Long userId);
     
     @Modifying
-    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId")
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId AND r.revoked = false")
     void revokeAllByUserId(Long userId);
+
+    // Giữ lại `keep` token còn hạn mới nhất của user, thu hồi phần còn lại (idx_refresh_token_user_revoked)
+    @Modifying
+    @Query(value = """
+            UPDATE "ecommerce-platform".refresh_tokens SET revoked = true
+            WHERE id IN (
+                SELECT id FROM "ecommerce-platform".refresh_tokens
+                WHERE user_id = :userId AND revoked = false
+                ORDER BY expiry_date DESC, id DESC
+                OFFSET :keep
+            )
+            """, nativeQuery = true)
+    int revokeOldestBeyond(@Param("userId") Long userId, @Param("keep") int keep);
+
+    // Xóa tối đa `batchSize` token hết hạn/đã thu hồi; mỗi lần gọi là một transaction ngắn
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM "ecommerce-platform".refresh_tokens
+            WHERE id IN (
+                SELECT id FROM "ecommerce-platform".refresh_tokens
+                WHERE expiry_date < :now OR revoked = true
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int deleteExpiredOrRevokedBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 }
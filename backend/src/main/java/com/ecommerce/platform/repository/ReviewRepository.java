@@ -3,11 +3,16 @@ package com.ecommerce.platform.repository;
 import com.ecommerce.platform.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,6 +26,40 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
 
         Optional<Review> findByCustomerIdAndProductIdAndOrderId(Long customerId, Long productId, Long orderId);
 
+        // Single review with product, customer and images joined (mutations and detail view)
+        @EntityGraph(attributePaths = { "product", "customer", "images" })
+        @Query("SELECT r FROM Review r WHERE r.id = :id")
+        Optional<Review> findWithReferencesById(@Param("id") Long id);
+
+        // Everything a page of ReviewResponse needs besides the review row itself, as scalars:
+        // (reviewId, productId, productName, productThumbnail, customerId, fullName, avatar, orderId, orderCode, image)
+        // One row per image (or one row with a null image); no Product/User/Order entities are loaded
+        @Query("SELECT r.id, p.id, p.name, p.thumbnail, c.id, c.fullName, c.avatar, o.id, o.orderCode, img " +
+                        "FROM Review r JOIN r.product p JOIN r.customer c LEFT JOIN r.order o LEFT JOIN r.images img " +
+                        "WHERE r.id IN :ids")
+        List<Object[]> findResponseReferences(@Param("ids") Collection<Long> ids);
+
+        // ===== Review eligibility (đơn DELIVERED của khách có chứa sản phẩm và chưa được đánh giá) =====
+
+        @Query("SELECT o.id FROM Order o JOIN o.items oi " +
+                        "WHERE o.customer.id = :customerId " +
+                        "AND o.status = com.ecommerce.platform.entity.Order.OrderStatus.DELIVERED " +
+                        "AND oi.product.id = :productId " +
+                        "AND NOT EXISTS (SELECT 1 FROM Review r WHERE r.customer.id = :customerId " +
+                        "AND r.product.id = :productId AND r.order.id = o.id) " +
+                        "ORDER BY o.createdAt DESC")
+        List<Long> findReviewableOrderIds(@Param("customerId") Long customerId, @Param("productId") Long productId,
+                        Pageable pageable);
+
+        @Query("SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END FROM OrderItem oi JOIN oi.order o " +
+                        "WHERE o.id = :orderId AND o.customer.id = :customerId " +
+                        "AND o.status = com.ecommerce.platform.entity.Order.OrderStatus.DELIVERED " +
+                        "AND oi.product.id = :productId " +
+                        "AND NOT EXISTS (SELECT 1 FROM Review r WHERE r.customer.id = :customerId " +
+                        "AND r.product.id = :productId AND r.order.id = o.id)")
+        boolean isReviewable(@Param("customerId") Long customerId, @Param("productId") Long productId,
+                        @Param("orderId") Long orderId);
+
         @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId AND r.status = 'ACTIVE'")
         Double calculateAverageRating(@Param("productId") Long productId);
 
@@ -33,6 +72,75 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
 
         Page<Review> findByStatus(Review.ReviewStatus status, Pageable pageable);
 
+        // ===== Bulk moderation (set-based, theo từng lô id) =====
+
+        @Query("SELECT r.id FROM Review r WHERE r.id IN :ids")
+        List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+        // (productId, rating, số review) của các review đang được tính vào thống kê (ACTIVE)
+        @Query("SELECT r.product.id, r.rating, COUNT(r) FROM Review r " +
+                        "WHERE r.id IN :ids AND r.status = com.ecommerce.platform.entity.Review.ReviewStatus.ACTIVE " +
+                        "GROUP BY r.product.id, r.rating")
+        List<Object[]> countActiveByProductAndRating(@Param("ids") Collection<Long> ids);
+
+        // (productId, rating, số review) của các review chưa được tính (sẽ thành ACTIVE)
+        @Query("SELECT r.product.id, r.rating, COUNT(r) FROM Review r " +
+                        "WHERE r.id IN :ids AND r.status <> com.ecommerce.platform.entity.Review.ReviewStatus.ACTIVE " +
+                        "GROUP BY r.product.id, r.rating")
+        List<Object[]> countInactiveByProductAndRating(@Param("ids") Collection<Long> ids);
+
+        @Modifying
+        @Query("UPDATE Review r SET r.status = :status WHERE r.id IN :ids AND r.status <> :status")
+        int bulkUpdateStatus(@Param("ids") Collection<Long> ids, @Param("status") Review.ReviewStatus status);
+
+        @Modifying
+        @Query("UPDATE Review r SET r.isReported = false, r.reportReason = null WHERE r.id IN :ids AND r.isReported = true")
+        int bulkDismissReports(@Param("ids") Collection<Long> ids);
+
+        // review_images không bị xóa theo khi DELETE bằng JPQL, phải xóa trước
+        @Modifying
+        @Query(value = "DELETE FROM \"ecommerce-platform\".review_images WHERE review_id IN (:ids)", nativeQuery = true)
+        int bulkDeleteImages(@Param("ids") Collection<Long> ids);
+
+        @Modifying
+        @Query("DELETE FROM Review r WHERE r.id IN :ids")
+        int bulkDelete(@Param("ids") Collection<Long> ids);
+
+        // ===== Search document (reviews.search_document) =====
+
+        // Tên sản phẩm đổi: truyền tên mới vào thay vì đọc products, không phụ thuộc thứ tự flush
+        @Transactional
+        @Modifying
+        @Query(value = """
+                        UPDATE "ecommerce-platform".reviews r
+                        SET search_document = lower(concat_ws(' ', r.comment, :productName, u.full_name))
+                        FROM "ecommerce-platform".users u
+                        WHERE u.id = r.customer_id AND r.product_id = :productId
+                        """, nativeQuery = true)
+        int refreshSearchDocumentsForProduct(@Param("productId") Long productId,
+                        @Param("productName") String productName);
+
+        @Transactional
+        @Modifying
+        @Query(value = """
+                        UPDATE "ecommerce-platform".reviews r
+                        SET search_document = lower(concat_ws(' ', r.comment, p.name, :fullName))
+                        FROM "ecommerce-platform".products p
+                        WHERE p.id = r.product_id AND r.customer_id = :customerId
+                        """, nativeQuery = true)
+        int refreshSearchDocumentsForCustomer(@Param("customerId") Long customerId,
+                        @Param("fullName") String fullName);
+
+        @Transactional
+        @Modifying
+        @Query(value = """
+                        UPDATE "ecommerce-platform".reviews r
+                        SET search_document = lower(concat_ws(' ', r.comment, p.name, u.full_name))
+                        FROM "ecommerce-platform".products p, "ecommerce-platform".users u
+                        WHERE p.id = r.product_id AND u.id = r.customer_id AND r.search_document IS NULL
+                        """, nativeQuery = true)
+        int fillMissingSearchDocuments();
+
         // User statistics queries
         @Query("SELECT COUNT(r) FROM Review r WHERE r.customer.id = :customerId")
         Long countByCustomerId(@Param("customerId") Long customerId);
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,6 +60,18 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
                         "LOWER(u.phone) LIKE LOWER(CONCAT('%', :keyword, '%')))")
         Page<User> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+        @Query("SELECT COUNT(u) FROM User u WHERE u.id IN :ids AND u.status <> :status " +
+                        "AND (u.lastLoginAt IS NULL OR u.lastLoginAt <= :since)")
+        long countNotLoggedInSince(@Param("ids") Collection<Long> ids, @Param("since") LocalDateTime since,
+                        @Param("status") User.UserStatus status);
+
+        @Modifying
+        @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+        int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+        @Query("SELECT u.id FROM User u WHERE u.status <> :status")
+        List<Long> findIdsByStatusNot(@Param("status") User.UserStatus status);
+
         @Modifying
         @Query("UPDATE User u SET u.status = :status, u.updatedAt = CURRENT_TIMESTAMP, u.updatedBy = :updatedBy WHERE u.id IN :ids AND u.status <> 'INACTIVE'")
         int bulkUpdateStatus(@Param("ids") List<Long> ids, @Param("status") User.UserStatus status,
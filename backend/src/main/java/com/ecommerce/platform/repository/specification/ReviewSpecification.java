@@ -2,7 +2,6 @@ package com.ecommerce.platform.repository.specification;
 
 import com.ecommerce.platform.entity.Product;
 import com.ecommerce.platform.entity.Review;
-import com.ecommerce.platform.entity.User;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
@@ -12,6 +11,7 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class ReviewSpecification {
 
@@ -29,15 +29,6 @@ public class ReviewSpecification {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // Joins to avoid N+1 and for search (using LEFT JOIN)
-            Join<Review, Product> productJoin = root.join("product", JoinType.LEFT);
-            Join<Product, Object> categoryJoin = productJoin.join("category", JoinType.LEFT);
-            Join<Review, User> customerJoin = root.join("customer", JoinType.LEFT);
-            // We join order just in case we need it, or rely on lazy loading if not eagerly
-            // fetched here.
-            // For search/filtering, we don't strictly need to filter by order fields yet,
-            // but good to have if needed.
-
             // 1. Status Filter
             if (status != null) {
                 predicates.add(cb.equal(root.get("status"), status));
@@ -72,6 +63,8 @@ public class ReviewSpecification {
 
             // 6. Category ID Filter
             if (categoryId != null) {
+                // Only join products when filtering by category; search no longer needs product/customer joins
+                Join<Review, Product> productJoin = root.join("product", JoinType.INNER);
                 predicates.add(cb.equal(productJoin.get("category").get("id"), categoryId));
             }
 
@@ -80,37 +73,11 @@ public class ReviewSpecification {
                 predicates.add(cb.equal(root.get("isReported"), isReported));
             }
 
-            // 8. Search (Complex logic to handle bytea/text mismatch)
+            // 8. Search on the denormalized search document (comment + product name + customer name),
+            // served by the trigram GIN index on reviews.search_document
             if (StringUtils.hasText(search)) {
-                String searchLike = "%" + search.toLowerCase() + "%";
-
-                // Handle 'convert_from' for potential bytea columns
-                // Using criteriaBuilder function to call PostgreSQL's convert_from(col, 'UTF8')
-
-                // For Product Name
-                var productNamePath = productJoin.get("name");
-                var productNameStr = cb.function("convert_from", String.class, productNamePath, cb.literal("UTF8"));
-                var productNameLower = cb.lower(productNameStr);
-
-                // For Customer Name
-                var customerNamePath = customerJoin.get("fullName");
-                var customerNameStr = cb.function("convert_from", String.class, customerNamePath, cb.literal("UTF8"));
-                var customerNameLower = cb.lower(customerNameStr);
-
-                // For Comment (handle nulls using coalesce)
-                var commentPath = root.get("comment");
-                var commentStr = cb.function("convert_from", String.class, commentPath, cb.literal("UTF8"));
-                // Coalesce is tricky with function return, usually cleaner to check isNotNull
-                // OR coalesce.
-                // Simple approach: coalesce(convert_from(comment, 'UTF8'), '')
-                var commentCoalesce = cb.coalesce(commentStr, "");
-                var commentLower = cb.lower(commentCoalesce.as(String.class));
-
-                Predicate searchPredicate = cb.or(
-                        cb.like(productNameLower, searchLike),
-                        cb.like(customerNameLower, searchLike),
-                        cb.like(commentLower, searchLike));
-                predicates.add(searchPredicate);
+                String searchLike = "%" + escapeLike(search.trim().toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.like(root.get("searchDocument"), searchLike, '\\'));
             }
 
             // Order by logic is handled by Pageable, but we need to ensure distinctive
@@ -130,4 +97,8 @@ public class ReviewSpecification {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
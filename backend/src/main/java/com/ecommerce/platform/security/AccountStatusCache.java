@@ -0,0 +1,108 @@
+package com.ecommerce.platform.security;
+
+import com.ecommerce.platform.entity.User;
+import com.ecommerce.platform.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trạng thái tài khoản dùng khi xác thực access token mà không truy vấn DB:
+ * tập id người dùng không còn ACTIVE (BANNED/INACTIVE) và mốc thời gian đổi vai trò gần nhất
+ * (token phát hành trước mốc đó mang vai trò cũ nên bị từ chối, người dùng phải refresh).
+ * Cập nhật sau khi transaction commit, nạp lại từ DB lúc khởi động và định kỳ.
+ */
+@Component
+@Slf4j
+public class AccountStatusCache {
+
+    private final UserRepository userRepository;
+    private final long accessTokenExpirationMs;
+
+    private volatile Set<Long> blockedUserIds = Set.of();
+    // userId -> epoch second lúc đổi vai trò; chỉ cần giữ trong thời hạn của access token
+    private final Map<Long, Long> roleChangedAt = new ConcurrentHashMap<>();
+
+    public AccountStatusCache(UserRepository userRepository,
+                              @Value("${jwt.access-token-expiration}") long accessTokenExpirationMs) {
+        this.userRepository = userRepository;
+        this.accessTokenExpirationMs = accessTokenExpirationMs;
+    }
+
+    /**
+     * Token của người dùng còn dùng được không, với issuedAt là thời điểm phát hành (epoch second).
+     */
+    public boolean isAllowed(Long userId, long issuedAtEpochSecond) {
+        if (blockedUserIds.contains(userId)) {
+            return false;
+        }
+        Long changedAt = roleChangedAt.get(userId);
+        // iat và mốc đổi vai trò đều bị cắt về giây: token phát hành cùng giây với lần đổi có thể mang vai trò cũ
+        // nên cũng bị từ chối
+        return changedAt == null || issuedAtEpochSecond > changedAt;
+    }
+
+    public void onStatusChanged(Long userId, User.UserStatus status) {
+        onStatusChanged(List.of(userId), status);
+    }
+
+    public void onStatusChanged(Collection<Long> userIds, User.UserStatus status) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        afterCommit(() -> {
+            synchronized (this) {
+                Set<Long> updated = new HashSet<>(blockedUserIds);
+                if (status == User.UserStatus.ACTIVE) {
+                    updated.removeAll(ids);
+                } else {
+                    updated.addAll(ids);
+                }
+                blockedUserIds = Set.copyOf(updated);
+            }
+        });
+    }
+
+    public void onRoleChanged(Long userId) {
+        afterCommit(() -> roleChangedAt.put(userId, System.currentTimeMillis() / 1000));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.account-status.resync-interval-ms:300000}",
+            initialDelayString = "${security.account-status.resync-interval-ms:300000}")
+    public void reload() {
+        Set<Long> ids = Set.copyOf(userRepository.findIdsByStatusNot(User.UserStatus.ACTIVE));
+        synchronized (this) {
+            blockedUserIds = ids;
+        }
+        long expiredBefore = (System.currentTimeMillis() - accessTokenExpirationMs) / 1000;
+        roleChangedAt.values().removeIf(changedAt -> changedAt < expiredBefore);
+        log.debug("Account status cache loaded {} blocked users", ids.size());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.platform.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt chạy trên một executor riêng (số luồng = số core, hàng đợi có giới hạn) thay vì trên luồng
+ * Tomcat: một đợt đăng nhập dồn dập không chiếm hết CPU của các request khác; khi hàng đợi đầy thì
+ * từ chối ngay (RejectedExecutionException -> 503).
+ * Cost được hiệu chỉnh lúc khởi động theo thời gian hash mục tiêu trên phần cứng hiện tại, trừ khi cấu hình
+ * cố định (security.password.cost). Hash lưu với cost khác sẽ được băm lại khi đăng nhập (upgradeEncoding +
+ * UserDetailsPasswordService, mỗi lần là một UPDATE users); với cost hiệu chỉnh, hash lệch một bậc vẫn được
+ * giữ nguyên để nhiễu đo thời gian giữa các lần khởi động không gây băm lại hàng loạt.
+ * Triển khai nhiều node nên cố định cost: mỗi node tự hiệu chỉnh có thể ra cost khác nhau, và người dùng
+ * đăng nhập luân phiên qua các node sẽ bị băm lại liên tục.
+ */
+@Slf4j
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    // Độ lệch cost (số bậc) của hash đã lưu vẫn chấp nhận mà không băm lại
+    private final int tolerance;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param fixedStrength cost cố định; 0 để hiệu chỉnh theo targetHashMillis trong [minStrength, maxStrength]
+     */
+    public BoundedBCryptPasswordEncoder(int fixedStrength, long targetHashMillis, int minStrength, int maxStrength,
+                                        int queueCapacity) {
+        this.strength = fixedStrength > 0 ? fixedStrength : calibrate(targetHashMillis, minStrength, maxStrength);
+        this.tolerance = fixedStrength > 0 ? 0 : 1;
+        this.delegate = new BCryptPasswordEncoder(strength);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("BCrypt cost {} ({}), {} hashing threads, queue {}", strength,
+                fixedStrength > 0 ? "fixed" : "calibrated for " + targetHashMillis + " ms", threads, queueCapacity);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Math.abs(Integer.parseInt(matcher.group(1)) - strength) > tolerance;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Đo thời gian hash ở cost nhỏ nhất rồi tăng cost (mỗi bậc gấp đôi thời gian) tới gần mục tiêu nhất
+    private static int calibrate(long targetHashMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warmup");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-probe");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double millis = Math.max(best / 1_000_000d, 0.001);
+
+        int cost = minStrength;
+        while (cost < maxStrength && millis * 2 <= targetHashMillis * Math.sqrt(2)) {
+            millis *= 2;
+            cost++;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.platform.security;
+
+import com.ecommerce.platform.dto.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Giới hạn tần suất cho đăng nhập, đăng ký, chatbot và eKYC; chạy sau JwtAuthenticationFilter để
+ * khóa theo user id khi đã đăng nhập, ngược lại theo địa chỉ IP. Vượt giới hạn trả 429 kèm Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Map<RateLimiter.Route, Counter> throttledCounters = new EnumMap<>(RateLimiter.Route.class);
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        for (RateLimiter.Route route : RateLimiter.Route.values()) {
+            throttledCounters.put(route, Counter.builder("http.rate_limit.throttled")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("route", route.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Route route = resolveRoute(request);
+        if (route != null) {
+            long retryAfterSeconds = rateLimiter.tryConsume(route, resolveKey(request));
+            if (retryAfterSeconds > 0) {
+                throttledCounters.get(route).increment();
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding("UTF-8");
+                objectMapper.writeValue(response.getOutputStream(),
+                        ApiResponse.error("Too many requests, please try again later"));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimiter.Route resolveRoute(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        return switch (request.getServletPath()) {
+            case "/api/auth/login" -> RateLimiter.Route.LOGIN;
+            case "/api/auth/register" -> RateLimiter.Route.REGISTER;
+            case "/api/chatbot/chat" -> RateLimiter.Route.CHATBOT;
+            case "/api/ekyc/verify" -> RateLimiter.Route.EKYC;
+            default -> null;
+        };
+    }
+
+    private String resolveKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
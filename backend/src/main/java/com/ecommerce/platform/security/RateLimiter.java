@@ -0,0 +1,111 @@
+package com.ecommerce.platform.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token bucket trong tiến trình cho các endpoint nặng (BCrypt, LLM, VNPT eKYC).
+ * Bucket được chia vào các stripe, mỗi stripe một khóa và một LinkedHashMap theo thứ tự truy cập
+ * có giới hạn kích thước: bucket lâu không dùng bị loại (tương đương bucket đầy), nên bộ nhớ bị chặn trên.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Route {
+        LOGIN, REGISTER, CHATBOT, EKYC
+    }
+
+    private static final int STRIPES = 64;
+
+    private final Map<Route, Limit> limits = new EnumMap<>(Route.class);
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public RateLimiter(@Value("${rate-limit.login.capacity:10}") int loginCapacity,
+                       @Value("${rate-limit.login.period-seconds:60}") long loginPeriod,
+                       @Value("${rate-limit.register.capacity:5}") int registerCapacity,
+                       @Value("${rate-limit.register.period-seconds:3600}") long registerPeriod,
+                       @Value("${rate-limit.chatbot.capacity:20}") int chatbotCapacity,
+                       @Value("${rate-limit.chatbot.period-seconds:60}") long chatbotPeriod,
+                       @Value("${rate-limit.ekyc.capacity:5}") int ekycCapacity,
+                       @Value("${rate-limit.ekyc.period-seconds:3600}") long ekycPeriod,
+                       @Value("${rate-limit.max-buckets:100000}") int maxBuckets) {
+        limits.put(Route.LOGIN, new Limit(loginCapacity, loginPeriod));
+        limits.put(Route.REGISTER, new Limit(registerCapacity, registerPeriod));
+        limits.put(Route.CHATBOT, new Limit(chatbotCapacity, chatbotPeriod));
+        limits.put(Route.EKYC, new Limit(ekycCapacity, ekycPeriod));
+        int perStripe = Math.max(1, maxBuckets / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Lấy một token cho (route, key).
+     *
+     * @return 0 nếu được phép, ngược lại số giây cần chờ trước khi thử lại
+     */
+    public long tryConsume(Route route, String key) {
+        Limit limit = limits.get(route);
+        if (limit.capacity <= 0) {
+            return 0;
+        }
+        String bucketKey = route.ordinal() + ":" + key;
+        Stripe stripe = stripes[Math.floorMod(bucketKey.hashCode(), STRIPES)];
+        long now = System.nanoTime();
+
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(bucketKey);
+            if (bucket == null) {
+                bucket = new Bucket(limit.capacity, now);
+                stripe.buckets.put(bucketKey, bucket);
+            } else {
+                bucket.tokens = Math.min(limit.capacity,
+                        bucket.tokens + (now - bucket.refilledAt) * limit.tokensPerNano);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            double nanosUntilToken = (1 - bucket.tokens) / limit.tokensPerNano;
+            return Math.max(1, (long) Math.ceil(nanosUntilToken / 1_000_000_000d));
+        }
+    }
+
+    private static final class Limit {
+        private final int capacity;
+        private final double tokensPerNano;
+
+        private Limit(int capacity, long periodSeconds) {
+            this.capacity = capacity;
+            this.tokensPerNano = capacity / (Math.max(1, periodSeconds) * 1_000_000_000d);
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
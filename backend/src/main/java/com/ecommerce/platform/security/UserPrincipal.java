@@ -40,6 +40,16 @@ public class UserPrincipal implements UserDetails {
                 authorities);
     }
 
+    /**
+     * Principal dựng từ claims của access token đã xác thực (không có mật khẩu, không truy vấn DB).
+     */
+    public static UserPrincipal fromClaims(Long id, String email, String role) {
+        Collection<? extends GrantedAuthority> authorities = role == null || role.isEmpty()
+                ? Collections.emptySet()
+                : Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role));
+        return new UserPrincipal(id, email, null, role == null ? "" : role, User.UserStatus.ACTIVE, authorities);
+    }
+
     @Override
     public String getUsername() {
         return email;
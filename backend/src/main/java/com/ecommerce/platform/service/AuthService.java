@@ -9,7 +9,7 @@ import com.ecommerce.platform.dto.response.UserResponse;
 
 public interface AuthService {
 
-    AuthResponse login(LoginRequest request);
+    AuthResponse login(LoginRequest request, String ipAddress);
 
     AuthResponse register(RegisterRequest request);
 
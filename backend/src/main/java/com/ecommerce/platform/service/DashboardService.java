@@ -0,0 +1,18 @@
+package com.ecommerce.platform.service;
+
+import com.ecommerce.platform.dto.response.CategorySalesResponse;
+import com.ecommerce.platform.dto.response.DashboardResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DashboardService {
+
+    DashboardResponse getDashboard(LocalDate from, LocalDate to, int year, int lowStockThreshold);
+
+    List<CategorySalesResponse> getCategorySales(LocalDate from, LocalDate to);
+
+    void evictCache();
+
+    void evictPeriodsContaining(LocalDate date);
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.platform.service;
+
+import com.ecommerce.platform.dto.response.ReviewStatisticsResponse;
+import com.ecommerce.platform.entity.Review;
+
+import java.util.Map;
+
+public interface ProductRatingStatsService {
+
+    void recordReviewChange(Long productId,
+                            Integer previousRating, Review.ReviewStatus previousStatus,
+                            Integer currentRating, Review.ReviewStatus currentStatus);
+
+    void recordBulkRatingChange(Map<Long, long[]> deltasByProduct);
+
+    ReviewStatisticsResponse getStatistics(Long productId);
+
+    int reconcile();
+}
@@ -23,6 +23,8 @@ public interface ProductService {
 
     List<ProductResponse> getNewestProducts(int limit);
 
+    List<ProductResponse> getTrendingProducts(String window, int limit);
+
     // Staff/Admin APIs
     Page<ProductResponse> getAllProductsForManagement(
             String status, Long categoryId, Pageable pageable);
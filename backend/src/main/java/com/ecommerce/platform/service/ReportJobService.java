@@ -0,0 +1,15 @@
+package com.ecommerce.platform.service;
+
+import com.ecommerce.platform.dto.request.ReportExportJobRequest;
+import com.ecommerce.platform.dto.response.ReportJobResponse;
+
+import java.nio.file.Path;
+
+public interface ReportJobService {
+
+    ReportJobResponse submitExport(Long userId, ReportExportJobRequest request);
+
+    ReportJobResponse getJob(String jobId, Long userId);
+
+    Path getResultFile(String jobId, Long userId);
+}
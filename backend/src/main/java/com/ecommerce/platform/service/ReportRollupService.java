@@ -0,0 +1,16 @@
+package com.ecommerce.platform.service;
+
+import com.ecommerce.platform.entity.Order;
+import com.ecommerce.platform.entity.Payment;
+
+import java.time.LocalDate;
+
+public interface ReportRollupService {
+
+    void recordOrderPlaced(Order order, Payment payment);
+
+    void recordStateChange(Order order, Order.OrderStatus previousOrderStatus,
+                           Payment payment, Payment.PaymentStatus previousPaymentStatus);
+
+    int rebuild(LocalDate from, LocalDate to);
+}
@@ -1,12 +1,22 @@
 package com.ecommerce.platform.service;
 
 import com.ecommerce.platform.dto.request.OrderStatusReport;
+import com.ecommerce.platform.dto.response.CategorySalesResponse;
+import com.ecommerce.platform.dto.response.LowStockProductResponse;
+import com.ecommerce.platform.dto.response.RevenueSeriesResponse;
+import com.ecommerce.platform.dto.response.TrendingProductResponse;
 import com.ecommerce.platform.entity.Order;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 
 public interface ReportService {
 
@@ -18,7 +28,18 @@ public interface ReportService {
 
     long countOrders(LocalDate from, LocalDate to);
 
-    byte[] exportOrders(Integer year, Integer month, Order.OrderStatus status);
+    void exportOrders(Integer year, Integer month, Order.OrderStatus status, OutputStream out) throws IOException;
+
+    void exportOrders(Integer year, Integer month, Order.OrderStatus status, OutputStream out,
+                      LongConsumer progress) throws IOException;
+
+    void exportOrdersCsv(Integer year, Integer month, Order.OrderStatus status, boolean gzip,
+                         OutputStream out) throws IOException;
+
+    void exportOrdersCsv(Integer year, Integer month, Order.OrderStatus status, boolean gzip,
+                         OutputStream out, LongConsumer progress) throws IOException;
+
+    long estimateExportRows(Integer year, Integer month, Order.OrderStatus status);
 
     BigDecimal getTotalRevenue(LocalDate from, LocalDate to);
 
@@ -26,7 +47,15 @@ public interface ReportService {
 
     Map<Integer, BigDecimal> getMonthlyRevenueReport(int year);
 
+    List<CategorySalesResponse> getCategorySales(LocalDate from, LocalDate to);
+
+    RevenueSeriesResponse getRevenueSeries(LocalDate from, LocalDate to, String granularity, String groupBy);
+
     Map<String, Object> getBestSeller();
 
+    List<TrendingProductResponse> getTrendingProducts(String window, int limit);
+
     Map<String, Object> getLowStockDetail(Integer threshold);
+
+    Page<LowStockProductResponse> getLowStockProducts(Integer threshold, Pageable pageable);
 }
@@ -1,8 +1,10 @@
 package com.ecommerce.platform.service;
 
+import com.ecommerce.platform.dto.request.BulkReviewActionRequest;
 import com.ecommerce.platform.dto.request.CreateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewStatusRequest;
+import com.ecommerce.platform.dto.response.BulkActionResponse;
 import com.ecommerce.platform.dto.response.ReviewResponse;
 import com.ecommerce.platform.dto.response.ReviewStatisticsResponse;
 import org.springframework.data.domain.Page;
@@ -48,6 +50,8 @@ public interface ReviewService {
 
     void dismissReport(Long reviewId);
 
+    BulkActionResponse bulkModerate(BulkReviewActionRequest request);
+
     com.ecommerce.platform.dto.response.ReviewEligibilityResponse checkReviewEligibility(Long customerId,
             Long productId);
 }
@@ -15,6 +15,7 @@ import com.ecommerce.platform.repository.UserRepository;
 import com.ecommerce.platform.security.JwtTokenProvider;
 import com.ecommerce.platform.service.AuthService;
 import com.ecommerce.platform.service.RefreshTokenService;
+import com.ecommerce.platform.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -36,12 +37,13 @@ public class AuthServiceImpl implements AuthService {
     private final UserMapper userMapper;
     private final RefreshTokenService refreshTokenService;
     private final com.ecommerce.platform.service.RoleService roleService;
+    private final UserService userService;
 
     @Value("${jwt.access-token-expiration}")
     private long accessTokenExpiration;
 
     @Override
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String ipAddress) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
@@ -50,6 +52,7 @@ public class AuthServiceImpl implements AuthService {
 
         String accessToken = tokenProvider.generateAccessToken(authentication);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        userService.updateLastLogin(user.getId(), ipAddress);
         System.err.println("error ngu");
         System.err.println(user.getRoles().isEmpty() ? "" : user.getRoles().iterator().next().getName());
         return AuthResponse.of(
@@ -0,0 +1,315 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.dto.request.OrderStatusReport;
+import com.ecommerce.platform.dto.response.CategorySalesResponse;
+import com.ecommerce.platform.dto.response.DashboardResponse;
+import com.ecommerce.platform.exception.ServiceUnavailableException;
+import com.ecommerce.platform.monitoring.RequestQueryContext;
+import com.ecommerce.platform.service.DashboardService;
+import com.ecommerce.platform.service.ReportService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Gom toàn bộ widget của dashboard admin vào một request.
+ * Các aggregate độc lập chạy song song trên một pool giới hạn; mỗi task gọi ReportService qua proxy
+ * nên có transaction (và connection) riêng. Kết quả được cache:
+ * - số liệu theo khoảng thời gian đã kết thúc (to trước hôm nay, năm trước năm hiện tại): TTL dài, và bị xóa
+ *   ngay khi rollup của một ngày trong khoảng đó thay đổi (đơn cũ/thanh toán của đơn cũ đổi trạng thái)
+ * - số liệu còn thay đổi (khoảng chứa hôm nay, best seller, tồn kho thấp): chỉ dựa vào TTL ngắn, không bị xóa
+ *   theo từng đơn để cache vẫn trúng khi có đơn liên tục
+ * Mỗi cache giữ tối đa MAX_CACHE_ENTRIES mục, đầy thì bỏ mục sắp hết hạn nhất.
+ * Doanh số theo cây danh mục dùng cache riêng theo khoảng thời gian (cùng TTL và cùng cách xóa)
+ * để endpoint riêng của nó cũng dùng lại được.
+ */
+@Service
+@Slf4j
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int MAX_CACHE_ENTRIES = 512;
+
+    private final ReportService reportService;
+    private final ThreadPoolExecutor executor;
+    private final long liveTtlMillis;
+    private final long closedTtlMillis;
+    private final long timeoutSeconds;
+
+    private final Map<PeriodKey, CacheEntry<PeriodStats>> periodCache = new ConcurrentHashMap<>();
+    private final Map<Integer, CacheEntry<Map<Integer, BigDecimal>>> monthlyCache = new ConcurrentHashMap<>();
+    private final Map<Integer, CacheEntry<LiveStats>> liveCache = new ConcurrentHashMap<>();
+    private final Map<PeriodKey, CacheEntry<List<CategorySalesResponse>>> categoryCache = new ConcurrentHashMap<>();
+    // Nhật ký các lần xóa (ngày bị đổi, null = xóa toàn bộ) theo số thứ tự: kết quả bắt đầu tính trước một lần xóa
+    // áp dụng cho chính khóa đó thì không được ghi lại vào cache; các khóa khác vẫn ghi bình thường
+    private final ConcurrentSkipListMap<Long, Invalidation> invalidations = new ConcurrentSkipListMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final AtomicLong prunedThrough = new AtomicLong();
+
+    public DashboardServiceImpl(ReportService reportService,
+                                @Value("${report.dashboard.pool-size:4}") int poolSize,
+                                @Value("${report.dashboard.queue-capacity:32}") int queueCapacity,
+                                @Value("${report.dashboard.live-ttl-seconds:60}") long liveTtlSeconds,
+                                @Value("${report.dashboard.closed-ttl-seconds:3600}") long closedTtlSeconds,
+                                @Value("${report.dashboard.timeout-seconds:30}") long timeoutSeconds) {
+        this.reportService = reportService;
+        this.liveTtlMillis = TimeUnit.SECONDS.toMillis(liveTtlSeconds);
+        this.closedTtlMillis = TimeUnit.SECONDS.toMillis(closedTtlSeconds);
+        this.timeoutSeconds = timeoutSeconds;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Hàng đợi giới hạn + CallerRuns: khi quá tải, request tự chạy query thay vì dồn việc vô hạn
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public DashboardResponse getDashboard(LocalDate from, LocalDate to, int year, int lowStockThreshold) {
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        long generation = invalidationSequence.get();
+
+        PeriodKey periodKey = new PeriodKey(from, to);
+        boolean periodClosed = periodKey.isClosed(today);
+        boolean yearClosed = year < today.getYear();
+
+        PeriodStats cachedPeriod = lookup(periodCache, periodKey, now);
+        Map<Integer, BigDecimal> cachedMonthly = lookup(monthlyCache, year, now);
+        LiveStats cachedLive = lookup(liveCache, lowStockThreshold, now);
+        List<CategorySalesResponse> cachedCategories = lookup(categoryCache, periodKey, now);
+
+        // Chỉ chạy những query chưa có trong cache, song song với nhau
+        CompletableFuture<List<OrderStatusReport>> orderStatus = cachedPeriod != null
+                ? CompletableFuture.completedFuture(cachedPeriod.orderStatus())
+                : submit(() -> reportService.getOrderStatusReport(from, to, null));
+        CompletableFuture<Long> totalOrders = cachedPeriod != null
+                ? CompletableFuture.completedFuture(cachedPeriod.totalOrders())
+                : submit(() -> reportService.countOrders(from, to));
+        CompletableFuture<BigDecimal> totalRevenue = cachedPeriod != null
+                ? CompletableFuture.completedFuture(cachedPeriod.totalRevenue())
+                : submit(() -> reportService.getTotalRevenue(from, to));
+        CompletableFuture<Map<String, Long>> paymentStats = cachedPeriod != null
+                ? CompletableFuture.completedFuture(cachedPeriod.paymentStats())
+                : submit(() -> reportService.getPaymentStats(from, to));
+        CompletableFuture<Map<Integer, BigDecimal>> monthlyRevenue = cachedMonthly != null
+                ? CompletableFuture.completedFuture(cachedMonthly)
+                : submit(() -> reportService.getMonthlyRevenueReport(year));
+        CompletableFuture<Map<String, Object>> bestSeller = cachedLive != null
+                ? CompletableFuture.completedFuture(cachedLive.bestSeller())
+                : submit(reportService::getBestSeller);
+        CompletableFuture<Map<String, Object>> lowStock = cachedLive != null
+                ? CompletableFuture.completedFuture(cachedLive.lowStock())
+                : submit(() -> reportService.getLowStockDetail(lowStockThreshold));
+        CompletableFuture<List<CategorySalesResponse>> categorySales = cachedCategories != null
+                ? CompletableFuture.completedFuture(cachedCategories)
+                : submit(() -> reportService.getCategorySales(from, to));
+
+        PeriodStats period = new PeriodStats(await(orderStatus), await(totalOrders),
+                await(totalRevenue), await(paymentStats));
+        Map<Integer, BigDecimal> monthly = await(monthlyRevenue);
+        LiveStats live = new LiveStats(await(bestSeller), await(lowStock));
+        List<CategorySalesResponse> categories = await(categorySales);
+
+        if (cachedPeriod == null) {
+            store(periodCache, periodKey, period, now + (periodClosed ? closedTtlMillis : liveTtlMillis),
+                    generation, periodClosed ? periodKey::contains : null);
+        }
+        if (cachedMonthly == null) {
+            store(monthlyCache, year, monthly, now + (yearClosed ? closedTtlMillis : liveTtlMillis),
+                    generation, yearClosed ? date -> date.getYear() == year : null);
+        }
+        if (cachedLive == null) {
+            store(liveCache, lowStockThreshold, live, now + liveTtlMillis, generation, null);
+        }
+        if (cachedCategories == null) {
+            store(categoryCache, periodKey, categories, now + (periodClosed ? closedTtlMillis : liveTtlMillis),
+                    generation, periodClosed ? periodKey::contains : null);
+        }
+
+        return DashboardResponse.builder()
+                .orderStatus(period.orderStatus())
+                .totalOrders(period.totalOrders())
+                .totalRevenue(period.totalRevenue())
+                .paymentStats(period.paymentStats())
+                .year(year)
+                .monthlyRevenue(monthly)
+                .bestSeller(live.bestSeller())
+                .lowStock(live.lowStock())
+                .categorySales(categories)
+                .build();
+    }
+
+    @Override
+    public List<CategorySalesResponse> getCategorySales(LocalDate from, LocalDate to) {
+        long now = System.currentTimeMillis();
+        long generation = invalidationSequence.get();
+        PeriodKey periodKey = new PeriodKey(from, to);
+        List<CategorySalesResponse> cached = lookup(categoryCache, periodKey, now);
+        if (cached != null) {
+            return cached;
+        }
+        List<CategorySalesResponse> categories = reportService.getCategorySales(from, to);
+        boolean periodClosed = periodKey.isClosed(LocalDate.now());
+        store(categoryCache, periodKey, categories, now + (periodClosed ? closedTtlMillis : liveTtlMillis),
+                generation, periodClosed ? periodKey::contains : null);
+        return categories;
+    }
+
+    @Override
+    public void evictCache() {
+        recordInvalidation(null);
+        periodCache.clear();
+        monthlyCache.clear();
+        liveCache.clear();
+        categoryCache.clear();
+        log.info("Dashboard cache evicted");
+    }
+
+    /**
+     * Gọi sau khi commit thay đổi rollup của ngày đặt hàng {@code date}: bỏ các khoảng đã kết thúc và năm đã qua
+     * chứa ngày đó. Khoảng chứa hôm nay không bị xóa ở đây, chúng hết hạn theo TTL ngắn.
+     */
+    @Override
+    public void evictPeriodsContaining(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (!date.isBefore(today)) {
+            return;
+        }
+        recordInvalidation(date);
+        periodCache.keySet().removeIf(key -> key.isClosed(today) && key.contains(date));
+        if (date.getYear() < today.getYear()) {
+            monthlyCache.remove(date.getYear());
+        }
+        // Doanh số theo danh mục đọc thẳng orders/order_items/payments của các đơn trong khoảng
+        categoryCache.keySet().removeIf(key -> key.isClosed(today) && key.contains(date));
+    }
+
+    private void recordInvalidation(LocalDate date) {
+        long now = System.currentTimeMillis();
+        invalidations.put(invalidationSequence.incrementAndGet(), new Invalidation(date, now));
+        // Chỉ giữ đủ lâu cho các lần tính đang chạy; lần tính bắt đầu trước mốc đã dọn coi như bị xóa
+        long horizon = now - TimeUnit.SECONDS.toMillis(timeoutSeconds) * 10;
+        Map.Entry<Long, Invalidation> eldest;
+        while ((eldest = invalidations.firstEntry()) != null
+                && (invalidations.size() > MAX_CACHE_ENTRIES || eldest.getValue().at() < horizon)) {
+            if (invalidations.remove(eldest.getKey()) != null) {
+                prunedThrough.accumulateAndGet(eldest.getKey(), Math::max);
+            }
+        }
+    }
+
+    // affected == null: khóa chỉ bị bỏ khi xóa toàn bộ (số liệu TTL ngắn)
+    private boolean invalidatedSince(long generation, Predicate<LocalDate> affected) {
+        if (generation < prunedThrough.get()) {
+            return true;
+        }
+        for (Invalidation invalidation : invalidations.tailMap(generation, false).values()) {
+            if (invalidation.date() == null || (affected != null && affected.test(invalidation.date()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Câu lệnh chạy trên pool vẫn được tính vào số liệu của request gọi dashboard
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(RequestQueryContext.propagate(task), executor);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException("Lỗi tính toán dashboard: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Dashboard tính toán quá thời gian cho phép");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Dashboard bị gián đoạn");
+        }
+    }
+
+    private <K, V> V lookup(Map<K, CacheEntry<V>> cache, K key, long now) {
+        CacheEntry<V> entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private <K, V> void store(Map<K, CacheEntry<V>> cache, K key, V value, long expiresAt, long generation,
+                              Predicate<LocalDate> affected) {
+        if (invalidatedSince(generation, affected)) {
+            return;
+        }
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            long now = System.currentTimeMillis();
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+            while (cache.size() >= MAX_CACHE_ENTRIES) {
+                cache.entrySet().stream()
+                        .min(Map.Entry.comparingByValue(Comparator.comparingLong(CacheEntry::expiresAt)))
+                        .ifPresent(eldest -> cache.remove(eldest.getKey()));
+            }
+        }
+        cache.put(key, new CacheEntry<>(value, expiresAt));
+        // Xóa xảy ra trong lúc ghi: bỏ luôn mục vừa ghi
+        if (invalidatedSince(generation, affected)) {
+            cache.remove(key);
+        }
+    }
+
+    private record CacheEntry<V>(V value, long expiresAt) {
+    }
+
+    private record Invalidation(LocalDate date, long at) {
+    }
+
+    // from/to null = không giới hạn phía đó
+    private record PeriodKey(LocalDate from, LocalDate to) {
+        boolean isClosed(LocalDate today) {
+            return to != null && to.isBefore(today);
+        }
+
+        boolean contains(LocalDate date) {
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+    }
+
+    private record PeriodStats(List<OrderStatusReport> orderStatus, long totalOrders,
+                               BigDecimal totalRevenue, Map<String, Long> paymentStats) {
+    }
+
+    private record LiveStats(Map<String, Object> bestSeller, Map<String, Object> lowStock) {
+    }
+}
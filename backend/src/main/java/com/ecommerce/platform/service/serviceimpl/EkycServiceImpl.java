@@ -5,6 +5,7 @@ import com.ecommerce.platform.dto.request.EkycVerifyRequest;
 import com.ecommerce.platform.dto.response.EkycVerifyResponse;
 import com.ecommerce.platform.entity.User;
 import com.ecommerce.platform.exception.EkycVerificationException;
+import com.ecommerce.platform.repository.ReviewRepository;
 import com.ecommerce.platform.repository.UserRepository;
 import com.ecommerce.platform.service.EkycService;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ public class EkycServiceImpl implements EkycService {
 
     private final VnptEkycClient vnptClient;
     private final UserRepository userRepository;
+    private final ReviewRepository reviewRepository;
     @Override
     public EkycVerifyResponse verify(EkycVerifyRequest request, String email) {
         try {
@@ -90,6 +92,7 @@ public class EkycServiceImpl implements EkycService {
 
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
+            boolean nameChanged = !java.util.Objects.equals(user.getFullName(), name);
             user.setId(user.getId());
             user.setEmail(user.getEmail());
             user.setFullName(name);
@@ -100,6 +103,9 @@ public class EkycServiceImpl implements EkycService {
             user.setFaceMatchScore(score);
             user.setVerified(verified);
             userRepository.save(user);
+            if (nameChanged) {
+                reviewRepository.refreshSearchDocumentsForCustomer(user.getId(), name);
+            }
 
             return EkycVerifyResponse.builder()
                     .name(name)
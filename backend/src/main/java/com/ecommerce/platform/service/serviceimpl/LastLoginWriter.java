@@ -0,0 +1,111 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gom cập nhật lần đăng nhập cuối (users.last_login_at / last_login_ip) trong bộ nhớ, mỗi user chỉ giữ
+ * lần mới nhất, rồi ghi định kỳ bằng một batch UPDATE (theo thứ tự id) thay vì find + save mỗi lần đăng nhập.
+ * Các chỗ đọc (chi tiết user, thống kê) đọc xuyên qua buffer để số liệu không bị trễ.
+ */
+@Component
+@Slf4j
+public class LastLoginWriter {
+
+    private static final String UPDATE_SQL = """
+            UPDATE "ecommerce-platform".users SET last_login_at = ?, last_login_ip = ?
+            WHERE id = ? AND status <> 'INACTIVE' AND (last_login_at IS NULL OR last_login_at < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, LoginMark> pending = new ConcurrentHashMap<>();
+    // Lô đang ghi: vẫn đọc được cho tới khi UPDATE xong
+    private volatile Map<Long, LoginMark> flushing = Map.of();
+
+    public LastLoginWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Long userId, String ipAddress) {
+        LoginMark mark = new LoginMark(LocalDateTime.now(), ipAddress);
+        pending.merge(userId, mark, LoginMark::latest);
+    }
+
+    /**
+     * Lần đăng nhập chưa được ghi xuống DB của user (null nếu không có).
+     */
+    public LoginMark getPending(Long userId) {
+        LoginMark mark = pending.get(userId);
+        LoginMark inFlight = flushing.get(userId);
+        return mark == null ? inFlight : inFlight == null ? mark : LoginMark.latest(mark, inFlight);
+    }
+
+    /**
+     * Id các user có lần đăng nhập chưa ghi xuống DB sau thời điểm since.
+     */
+    public Set<Long> getPendingUserIdsSince(LocalDateTime since) {
+        Set<Long> ids = new HashSet<>();
+        pending.forEach((id, mark) -> {
+            if (mark.at().isAfter(since)) {
+                ids.add(id);
+            }
+        });
+        flushing.forEach((id, mark) -> {
+            if (mark.at().isAfter(since)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    @Scheduled(fixedDelayString = "${user.last-login.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Chỉ lấy đúng giá trị đã đọc; nếu user vừa đăng nhập lại thì để lần sau
+        Map<Long, LoginMark> batch = new TreeMap<>();
+        for (Map.Entry<Long, LoginMark> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        flushing = batch;
+        try {
+            List<Object[]> args = new ArrayList<>(batch.size());
+            batch.forEach((id, mark) -> {
+                Timestamp at = Timestamp.valueOf(mark.at());
+                args.add(new Object[]{at, mark.ipAddress(), id, at});
+            });
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} last-login updates, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach((id, mark) -> pending.merge(id, mark, LoginMark::latest));
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public record LoginMark(LocalDateTime at, String ipAddress) {
+        static LoginMark latest(LoginMark a, LoginMark b) {
+            return a.at.isAfter(b.at) ? a : b;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.dto.response.LowStockProductResponse;
+import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục tồn kho trong bộ nhớ cho các sản phẩm ACTIVE, sắp theo (tồn kho, id).
+ * Trả lời "bao nhiêu sản phẩm dưới ngưỡng" và "k sản phẩm tồn thấp nhất" mà không cần query DB.
+ * Được cập nhật sau khi transaction thay đổi tồn kho commit (đặt hàng, hoàn kho, sửa sản phẩm)
+ * và đồng bộ lại toàn bộ định kỳ để bắt các thay đổi ngoài luồng (seed, SQL tay).
+ */
+@Component
+@Slf4j
+public class LowStockTracker {
+
+    // Đếm theo từng mức tồn 0..COUNT_CAP-1 bằng Fenwick tree; mức lớn hơn chỉ nằm trong sortedEntries
+    private static final int COUNT_CAP = 1024;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableSet<StockEntry> sortedEntries = new TreeSet<>();
+    private final Map<Long, TrackedProduct> productsById = new HashMap<>();
+    private final long[] fenwick = new long[COUNT_CAP + 1];
+
+    public LowStockTracker(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Ghi nhận tồn kho/trạng thái mới của sản phẩm. Nếu đang trong transaction thì chỉ áp dụng sau khi commit.
+     */
+    public void track(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Long id = product.getId();
+        boolean active = product.getStatus() == Product.ProductStatus.ACTIVE && product.getStockQuantity() != null;
+        TrackedProduct snapshot = active
+                ? new TrackedProduct(id, product.getName(), product.getThumbnail(), product.getStockQuantity())
+                : null;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(id, snapshot);
+                }
+            });
+        } else {
+            apply(id, snapshot);
+        }
+    }
+
+    public long countBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            if (threshold <= 0) {
+                return 0;
+            }
+            if (threshold <= COUNT_CAP) {
+                return prefixCount(threshold - 1);
+            }
+            long count = prefixCount(COUNT_CAP - 1);
+            count += sortedEntries.subSet(new StockEntry(COUNT_CAP, Long.MIN_VALUE), true,
+                    new StockEntry(threshold, Long.MIN_VALUE), false).size();
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LowStockProductResponse> lowest(int threshold, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<LowStockProductResponse> result = new ArrayList<>(Math.max(0, Math.min(limit, 100)));
+            int index = 0;
+            for (StockEntry entry : sortedEntries) {
+                if (entry.stock() >= threshold || result.size() >= limit) {
+                    break;
+                }
+                if (index++ < offset) {
+                    continue;
+                }
+                TrackedProduct product = productsById.get(entry.productId());
+                result.add(LowStockProductResponse.builder()
+                        .id(product.id())
+                        .name(product.name())
+                        .thumbnail(product.thumbnail())
+                        .stockQuantity(product.stock())
+                        .build());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Long id, TrackedProduct snapshot) {
+        lock.writeLock().lock();
+        try {
+            TrackedProduct previous = productsById.remove(id);
+            if (previous != null) {
+                sortedEntries.remove(new StockEntry(previous.stock(), id));
+                addCount(previous.stock(), -1);
+            }
+            if (snapshot != null) {
+                productsById.put(id, snapshot);
+                sortedEntries.add(new StockEntry(snapshot.stock(), id));
+                addCount(snapshot.stock(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ từ DB: lúc khởi động và định kỳ.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.low-stock.resync-interval-ms:600000}",
+            initialDelayString = "${inventory.low-stock.resync-interval-ms:600000}")
+    public void reload() {
+        List<Object[]> rows = productRepository.findStockSnapshotByStatus(Product.ProductStatus.ACTIVE);
+
+        lock.writeLock().lock();
+        try {
+            sortedEntries.clear();
+            productsById.clear();
+            Arrays.fill(fenwick, 0L);
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                Integer stock = (Integer) row[3];
+                if (stock == null) {
+                    continue;
+                }
+                productsById.put(id, new TrackedProduct(id, (String) row[1], (String) row[2], stock));
+                sortedEntries.add(new StockEntry(stock, id));
+                addCount(stock, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Low-stock tracker loaded {} active products", rows.size());
+    }
+
+    // ===== Fenwick tree trên mức tồn kho (âm được tính như 0) =====
+
+    private void addCount(int stock, long delta) {
+        if (stock >= COUNT_CAP) {
+            return;
+        }
+        for (int i = Math.max(stock, 0) + 1; i <= COUNT_CAP; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    /** Số sản phẩm có tồn kho <= maxStock (maxStock < COUNT_CAP). */
+    private long prefixCount(int maxStock) {
+        long sum = 0;
+        for (int i = maxStock + 1; i > 0; i -= i & -i) {
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    private record StockEntry(int stock, long productId) implements Comparable<StockEntry> {
+        @Override
+        public int compareTo(StockEntry other) {
+            int byStock = Integer.compare(stock, other.stock);
+            return byStock != 0 ? byStock : Long.compare(productId, other.productId);
+        }
+    }
+
+    private record TrackedProduct(Long id, String name, String thumbnail, int stock) {
+    }
+}
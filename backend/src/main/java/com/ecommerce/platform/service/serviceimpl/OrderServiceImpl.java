@@ -8,6 +8,7 @@ import com.ecommerce.platform.exception.*;
 import com.ecommerce.platform.mapper.OrderMapper;
 import com.ecommerce.platform.repository.*;
 import com.ecommerce.platform.service.OrderService;
+import com.ecommerce.platform.service.ReportRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,9 @@ public class OrderServiceImpl implements OrderService {
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final OrderMapper orderMapper;
+    private final ReportRollupService reportRollupService;
+    private final LowStockTracker lowStockTracker;
+    private final SalesTrendTracker salesTrendTracker;
 
     private static final BigDecimal SHIPPING_FEE = new BigDecimal("30000");
 
@@ -66,8 +70,11 @@ public class OrderServiceImpl implements OrderService {
             cart = cartRepository.findByCustomerId(customerId)
                     .orElseThrow(() -> new BadRequestException("Giỏ hàng trống"));
 
+            // Nạp mọi dòng giỏ hàng được chọn bằng một câu IN thay vì một câu cho mỗi dòng
+            Map<Long, CartItem> selectedItems = cartItemRepository.findAllById(request.getCartItemIds()).stream()
+                    .collect(Collectors.toMap(CartItem::getId, item -> item));
             cartItems = request.getCartItemIds().stream()
-                    .map(id -> cartItemRepository.findById(id)
+                    .map(id -> Optional.ofNullable(selectedItems.get(id))
                             .orElseThrow(() -> new ResourceNotFoundException("Cart item", id)))
                     .collect(Collectors.toList());
 
@@ -117,6 +124,8 @@ public class OrderServiceImpl implements OrderService {
             product.setStockQuantity(product.getStockQuantity() - request.getQuantity());
             product.setSoldCount(product.getSoldCount() + request.getQuantity());
             productRepository.save(product);
+            lowStockTracker.track(product);
+            salesTrendTracker.recordSale(product.getId(), request.getQuantity(), order.getCreatedAt());
         } else {
             for (CartItem cartItem : cartItems) {
                 Product product = cartItem.getProduct();
@@ -139,6 +148,8 @@ public class OrderServiceImpl implements OrderService {
                 product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
                 product.setSoldCount(product.getSoldCount() + cartItem.getQuantity());
                 productRepository.save(product);
+                lowStockTracker.track(product);
+                salesTrendTracker.recordSale(product.getId(), cartItem.getQuantity(), order.getCreatedAt());
             }
 
             // Clear cart items if not direct purchase
@@ -164,6 +175,7 @@ public class OrderServiceImpl implements OrderService {
                 .status(Payment.PaymentStatus.PENDING)
                 .build();
         paymentRepository.save(payment);
+        reportRollupService.recordOrderPlaced(order, payment);
 
         // Return single order in list for consistency
         return List.of(buildOrderResponse(order));
@@ -203,7 +215,7 @@ public class OrderServiceImpl implements OrderService {
     @Transactional(readOnly = true)
     public Page<OrderResponse> getCustomerOrders(Long customerId, Pageable pageable) {
         Page<Order> orders = orderRepository.findByCustomerId(customerId, pageable);
-        return orders.map(this::buildOrderResponse);
+        return buildOrderResponses(orders);
     }
 
     @Override
@@ -221,10 +233,15 @@ public class OrderServiceImpl implements OrderService {
 
         restoreStock(orderId);
 
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
         orderRepository.save(order);
 
+        Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        reportRollupService.recordStateChange(order, previousStatus,
+                payment, payment != null ? payment.getStatus() : null);
+
         return buildOrderResponse(order);
     }
 
@@ -238,7 +255,7 @@ public class OrderServiceImpl implements OrderService {
         } else {
             orders = orderRepository.findAll(pageable);
         }
-        return orders.map(this::buildOrderResponse);
+        return buildOrderResponses(orders);
     }
 
     @Override
@@ -252,6 +269,10 @@ public class OrderServiceImpl implements OrderService {
         Order.OrderStatus newStatus = Order.OrderStatus.valueOf(request.getStatus().toUpperCase());
         validateStatusTransition(order.getStatus(), newStatus);
 
+        Order.OrderStatus previousStatus = order.getStatus();
+        Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        Payment.PaymentStatus previousPaymentStatus = payment != null ? payment.getStatus() : null;
+
         order.setStatus(newStatus);
 
         switch (newStatus) {
@@ -267,7 +288,6 @@ public class OrderServiceImpl implements OrderService {
             case DELIVERED -> order.setDeliveredAt(LocalDateTime.now());
             case COMPLETED -> {
                 order.setCompletedAt(LocalDateTime.now());
-                Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
                 if (payment != null && payment.getMethod() == Payment.PaymentMethod.COD) {
                     payment.setStatus(Payment.PaymentStatus.COMPLETED);
                     payment.setPaidAt(LocalDateTime.now());
@@ -281,6 +301,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(order);
+        reportRollupService.recordStateChange(order, previousStatus, payment, previousPaymentStatus);
         return buildOrderResponse(order);
     }
 
@@ -302,10 +323,12 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Chỉ có thể xác nhận nhận hàng cho đơn hàng đã giao.");
         }
 
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.COMPLETED);
         order.setCompletedAt(LocalDateTime.now());
 
         Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        Payment.PaymentStatus previousPaymentStatus = payment != null ? payment.getStatus() : null;
         if (payment != null && payment.getMethod() == Payment.PaymentMethod.COD) {
             payment.setStatus(Payment.PaymentStatus.COMPLETED);
             payment.setPaidAt(LocalDateTime.now());
@@ -313,6 +336,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(order);
+        reportRollupService.recordStateChange(order, previousStatus, payment, previousPaymentStatus);
         return buildOrderResponse(order);
     }
 
@@ -323,6 +347,8 @@ public class OrderServiceImpl implements OrderService {
             product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
             product.setSoldCount(product.getSoldCount() - item.getQuantity());
             productRepository.save(product);
+            lowStockTracker.track(product);
+            salesTrendTracker.recordCancellation(product.getId(), item.getQuantity(), item.getOrder().getCreatedAt());
         }
     }
 
@@ -344,7 +370,22 @@ public class OrderServiceImpl implements OrderService {
     private OrderResponse buildOrderResponse(Order order) {
         List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
         Payment payment = paymentRepository.findByOrderId(order.getId()).orElse(null);
+        return buildOrderResponse(order, items, payment);
+    }
+
+    // Dòng hàng của cả trang nạp bằng một câu IN; thanh toán đã JOIN sẵn qua entity graph của truy vấn trang
+    private Page<OrderResponse> buildOrderResponses(Page<Order> orders) {
+        List<Long> orderIds = orders.getContent().stream().map(Order::getId).toList();
+        if (orderIds.isEmpty()) {
+            return orders.map(orderMapper::toResponse);
+        }
+        Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        return orders.map(order -> buildOrderResponse(order,
+                itemsByOrder.getOrDefault(order.getId(), List.of()), order.getPayment()));
+    }
 
+    private OrderResponse buildOrderResponse(Order order, List<OrderItem> items, Payment payment) {
         OrderResponse response = orderMapper.toResponse(order);
         response.setItems(orderMapper.toOrderItemResponseList(items));
         if (payment != null) {
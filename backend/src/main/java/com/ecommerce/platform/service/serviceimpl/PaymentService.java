@@ -5,6 +5,7 @@ import com.ecommerce.platform.config.VnpayConfig;
 import com.ecommerce.platform.entity.Order;
 import com.ecommerce.platform.entity.Payment;
 import com.ecommerce.platform.repository.PaymentRepository;
+import com.ecommerce.platform.service.ReportRollupService;
 import com.ecommerce.platform.util.VnpayUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ public class PaymentService {
     @Autowired HttpServletRequest request;
     @Autowired PaymentRepository paymentRepository;
     @Autowired RestTemplate restTemplate;
+    @Autowired ReportRollupService reportRollupService;
 
     /**
      * Hàm chính: Tạo URL thanh toán dựa trên phương thức (VNPAY hoặc MOMO)
@@ -44,9 +46,12 @@ public class PaymentService {
 
         // 3. Tạo TransactionId duy nhất (Tránh trùng lặp khi thanh toán lại)
         String uniqueTxnRef = payment.getOrder().getOrderCode() + "_" + System.currentTimeMillis();
+        Payment.PaymentStatus previousPaymentStatus = payment.getStatus();
         payment.setTransactionId(uniqueTxnRef);
         payment.setStatus(Payment.PaymentStatus.PROCESSING);
         paymentRepository.save(payment);
+        reportRollupService.recordStateChange(payment.getOrder(), payment.getOrder().getStatus(),
+                payment, previousPaymentStatus);
 
         // 4. Điều hướng theo phương thức thanh toán
         if ("MOMO".equalsIgnoreCase(method)) {
@@ -162,19 +167,24 @@ public class PaymentService {
             return true;
         }
 
+        Order order = payment.getOrder();
+        Order.OrderStatus previousOrderStatus = order.getStatus();
+        Payment.PaymentStatus previousPaymentStatus = payment.getStatus();
+
         // Kiểm tra mã thành công (00 của VNPay hoặc 0 của MoMo)
         if ("00".equals(responseCode) || "0".equals(responseCode)) {
             payment.setStatus(Payment.PaymentStatus.COMPLETED);
             payment.setPaidAt(LocalDateTime.now());
 
-            Order order = payment.getOrder();
             order.setStatus(Order.OrderStatus.PENDING); // Đơn hàng chuyển sang chờ xử lý
 
             paymentRepository.save(payment);
+            reportRollupService.recordStateChange(order, previousOrderStatus, payment, previousPaymentStatus);
             return true;
         } else {
             payment.setStatus(Payment.PaymentStatus.FAILED);
             paymentRepository.save(payment);
+            reportRollupService.recordStateChange(order, previousOrderStatus, payment, previousPaymentStatus);
             return false;
         }
     }
@@ -0,0 +1,179 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.ai.service.EmbeddingService;
+import com.ecommerce.platform.dto.response.ReviewStatisticsResponse;
+import com.ecommerce.platform.entity.ProductRatingStats;
+import com.ecommerce.platform.entity.Review;
+import com.ecommerce.platform.repository.ProductRatingStatsRepository;
+import com.ecommerce.platform.repository.ProductRepository;
+import com.ecommerce.platform.repository.ReviewRepository;
+import com.ecommerce.platform.service.ProductRatingStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductRatingStatsServiceImpl implements ProductRatingStatsService {
+
+    private final ProductRatingStatsRepository statsRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+    private final EmbeddingService embeddingService;
+
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    /**
+     * Gọi trong cùng transaction với thay đổi của Review. previous* = null khi tạo mới, current* = null khi xóa.
+     * Chỉ review ACTIVE được tính: -1 ở mức cũ (nếu đang được tính), +1 ở mức mới (nếu được tính).
+     */
+    @Override
+    @Transactional
+    public void recordReviewChange(Long productId,
+                                   Integer previousRating, Review.ReviewStatus previousStatus,
+                                   Integer currentRating, Review.ReviewStatus currentStatus) {
+        boolean wasCounted = isCounted(previousRating, previousStatus);
+        boolean isCounted = isCounted(currentRating, currentStatus);
+        if (wasCounted == isCounted && (!wasCounted || Objects.equals(previousRating, currentRating))) {
+            return;
+        }
+        if (wasCounted) {
+            statsRepository.applyDelta(productId, previousRating, -1);
+        }
+        if (isCounted) {
+            statsRepository.applyDelta(productId, currentRating, 1);
+        }
+        // Product.averageRating / totalReviews lấy thẳng từ dòng histogram vừa cập nhật (cùng transaction)
+        productRepository.syncRatingFromStats(List.of(productId));
+        refreshEmbeddingsAfterCommit(List.of(productId));
+    }
+
+    /**
+     * Áp dụng delta đã gộp theo sản phẩm: deltasByProduct[productId][rating] (chỉ số 1..5).
+     * Một upsert cho mỗi sản phẩm, một câu đồng bộ Product cho mỗi lô, thay vì tính lại theo từng review.
+     */
+    @Override
+    @Transactional
+    public void recordBulkRatingChange(Map<Long, long[]> deltasByProduct) {
+        List<Long> productIds = new ArrayList<>(deltasByProduct.size());
+        for (Map.Entry<Long, long[]> entry : deltasByProduct.entrySet()) {
+            long[] d = entry.getValue();
+            if (d[1] == 0 && d[2] == 0 && d[3] == 0 && d[4] == 0 && d[5] == 0) {
+                continue;
+            }
+            statsRepository.applyHistogramDelta(entry.getKey(), d[1], d[2], d[3], d[4], d[5]);
+            productIds.add(entry.getKey());
+        }
+        for (int from = 0; from < productIds.size(); from += SYNC_BATCH_SIZE) {
+            productRepository.syncRatingFromStats(
+                    productIds.subList(from, Math.min(from + SYNC_BATCH_SIZE, productIds.size())));
+        }
+        refreshEmbeddingsAfterCommit(productIds);
+    }
+
+    private boolean isCounted(Integer rating, Review.ReviewStatus status) {
+        return status == Review.ReviewStatus.ACTIVE && rating != null && rating >= 1 && rating <= 5;
+    }
+
+    /**
+     * Đọc một dòng theo khóa chính, không chạy aggregate nào trên bảng reviews.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewStatisticsResponse getStatistics(Long productId) {
+        ProductRatingStats stats = statsRepository.findById(productId).orElse(null);
+
+        Map<Integer, Integer> ratingDistribution = new HashMap<>();
+        long[] counts = stats != null
+                ? new long[] { stats.getRating1(), stats.getRating2(), stats.getRating3(),
+                        stats.getRating4(), stats.getRating5() }
+                : new long[5];
+        for (int i = 1; i <= 5; i++) {
+            ratingDistribution.put(i, (int) Math.max(counts[i - 1], 0));
+        }
+
+        long count = stats != null ? Math.max(stats.getRatingCount(), 0) : 0;
+        double average = count > 0 ? (double) stats.getRatingSum() / count : 0.0;
+
+        return ReviewStatisticsResponse.builder()
+                .productId(productId)
+                .averageRating(average)
+                .totalReviews((int) count)
+                .ratingDistribution(ratingDistribution)
+                .build();
+    }
+
+    /**
+     * Tính lại toàn bộ histogram bằng một GROUP BY trên reviews (đối soát, backfill).
+     */
+    @Override
+    @Transactional
+    public int reconcile() {
+        int upserted = statsRepository.recomputeAll();
+        int removed = statsRepository.deleteWithoutActiveReviews();
+
+        // Chỉ chép lại và re-embed những sản phẩm có averageRating / totalReviews lệch với histogram
+        List<Long> staleProductIds = productRepository.findIdsWithStaleRating();
+        for (int from = 0; from < staleProductIds.size(); from += SYNC_BATCH_SIZE) {
+            productRepository.syncRatingFromStats(
+                    staleProductIds.subList(from, Math.min(from + SYNC_BATCH_SIZE, staleProductIds.size())));
+        }
+        refreshEmbeddingsAfterCommit(staleProductIds);
+
+        log.info("Reconciled product rating stats: {} products recomputed, {} stale rows removed, {} product ratings fixed",
+                upserted, removed, staleProductIds.size());
+        return upserted;
+    }
+
+    /**
+     * Metadata trong vector store (averageRating, totalReviews) chỉ được cập nhật sau khi commit:
+     * afterCommit chỉ xếp hàng id, việc re-embed chạy trên worker riêng của EmbeddingService.
+     */
+    private void refreshEmbeddingsAfterCommit(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    embeddingService.refreshProducts(ids);
+                }
+            });
+        } else {
+            embeddingService.refreshProducts(ids);
+        }
+    }
+
+    @Scheduled(cron = "${review.stats.reconcile-cron:0 15 3 * * *}")
+    @Transactional
+    public void reconcileNightly() {
+        reconcile();
+    }
+
+    /**
+     * Backfill lần đầu khi bảng thống kê còn trống nhưng đã có review.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (statsRepository.count() > 0 || reviewRepository.count() == 0) {
+            return;
+        }
+        reconcile();
+    }
+}
@@ -11,6 +11,7 @@ import com.ecommerce.platform.exception.ResourceNotFoundException;
 import com.ecommerce.platform.mapper.ProductMapper;
 import com.ecommerce.platform.repository.CategoryRepository;
 import com.ecommerce.platform.repository.ProductRepository;
+import com.ecommerce.platform.repository.ReviewRepository;
 import com.ecommerce.platform.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +36,9 @@ public class ProductServiceImpl implements ProductService {
     private final ProductMapper productMapper;
     private final CategoryRepository categoryRepository;
     private final EmbeddingService embeddingService;
+    private final LowStockTracker lowStockTracker;
+    private final TrendingProductLookup trendingProductLookup;
+    private final ReviewRepository reviewRepository;
 
     @Override
     @Cacheable(value = "products", key = "'all_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
@@ -106,6 +111,17 @@ public class ProductServiceImpl implements ProductService {
                 productRepository.findNewestProducts(PageRequest.of(0, limit)));
     }
 
+    @Override
+    public List<ProductResponse> getTrendingProducts(String window, int limit) {
+        // Sản phẩm đã ngừng bán vẫn có thể còn trong bảng xếp hạng: bỏ qua và lấy tiếp hạng sau
+        List<Product> ranked = trendingProductLookup.findTop(SalesTrendTracker.Window.fromCode(window), limit,
+                        product -> product.getStatus() == Product.ProductStatus.ACTIVE)
+                .stream()
+                .map(TrendingProductLookup.TrendingProduct::product)
+                .toList();
+        return productMapper.toResponseList(ranked);
+    }
+
     @Override
     public Page<ProductResponse> getAllProductsForManagement(String status, Long categoryId, Pageable pageable) {
         Product.ProductStatus productStatus = null;
@@ -132,6 +148,7 @@ public class ProductServiceImpl implements ProductService {
         product.setStatus(parseStatus(request.getStatus()));
 
         Product savedProduct = productRepository.save(product);
+        lowStockTracker.track(savedProduct);
         log.info("Product created: {}", savedProduct.getId());
         // Generate embedding for the new product
         embeddingService.embedProduct(savedProduct);
@@ -158,10 +175,16 @@ public class ProductServiceImpl implements ProductService {
             product.setCategory(category);
         }
 
+        String previousName = product.getName();
         productMapper.updateFromRequest(request, product);
         product.setStatus(parseStatus(request.getStatus()));
 
         Product updatedProduct = productRepository.save(product);
+        lowStockTracker.track(updatedProduct);
+        if (!Objects.equals(previousName, updatedProduct.getName())) {
+            // Keep the review moderation search document in sync with the new product name
+            reviewRepository.refreshSearchDocumentsForProduct(id, updatedProduct.getName());
+        }
         log.info("Product updated: {}", id);
         // Re-generate embedding for the updated product
         embeddingService.embedProduct(updatedProduct);
@@ -179,6 +202,7 @@ public class ProductServiceImpl implements ProductService {
         // Soft delete - set status to INACTIVE
         product.setStatus(Product.ProductStatus.INACTIVE);
         productRepository.save(product);
+        lowStockTracker.track(product);
 
         log.info("Product soft deleted: {}", id);
     }
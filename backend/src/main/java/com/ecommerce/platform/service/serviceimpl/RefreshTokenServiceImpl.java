@@ -6,38 +6,97 @@ import com.ecommerce.platform.exception.BadRequestException;
 import com.ecommerce.platform.repository.RefreshTokenRepository;
 import com.ecommerce.platform.security.JwtTokenProvider;
 import com.ecommerce.platform.service.RefreshTokenService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Slf4j
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtTokenProvider tokenProvider;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.refresh-token.max-active-per-user:5}")
+    private int maxActivePerUser;
+
+    @Value("${auth.refresh-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    /**
+     * Bảng cũ còn cột token NOT NULL UNIQUE chứa token gốc (V8 chưa chạy): bỏ NOT NULL để insert mới
+     * (chỉ có token_hash) không lỗi, rồi điền token_hash cho các dòng cũ và xóa token gốc, theo lô.
+     * Chạy khi khởi tạo bean (sau khi Hibernate cập nhật schema, trước khi nhận request); chạy lại vô hại.
+     * Cột token được V8 xóa hẳn khi chạy migration.
+     */
+    @PostConstruct
+    public void upgradeLegacyTokenColumn() {
+        try {
+            Integer legacyColumns = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM information_schema.columns WHERE table_schema = 'ecommerce-platform' "
+                            + "AND table_name = 'refresh_tokens' AND column_name = 'token'", Integer.class);
+            if (legacyColumns == null || legacyColumns == 0) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE \"ecommerce-platform\".refresh_tokens ALTER COLUMN token DROP NOT NULL");
+
+            long total = 0;
+            int updated;
+            do {
+                updated = jdbcTemplate.update(
+                        "UPDATE \"ecommerce-platform\".refresh_tokens "
+                                + "SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex'), token = NULL "
+                                + "WHERE id IN (SELECT id FROM \"ecommerce-platform\".refresh_tokens "
+                                + "WHERE token IS NOT NULL LIMIT ?)", purgeBatchSize);
+                total += updated;
+            } while (updated == purgeBatchSize);
+            if (total > 0) {
+                log.info("Backfilled token_hash for {} legacy refresh tokens", total);
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not upgrade legacy refresh_tokens.token column, run V8__hash_refresh_tokens.sql: {}",
+                    e.getMessage());
+        }
+    }
 
     @Override
     public RefreshToken createRefreshToken(User user) {
+        String token = UUID.randomUUID().toString();
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(token)
+                .tokenHash(hash(token))
                 .expiryDate(Instant.now().plusMillis(tokenProvider.getRefreshTokenExpirationMs()))
                 .revoked(false)
                 .build();
 
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        // Mỗi user chỉ giữ tối đa N phiên đăng nhập, phiên cũ nhất bị thu hồi
+        refreshTokenRepository.revokeOldestBeyond(user.getId(), maxActivePerUser);
+        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
     public RefreshToken verifyRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
-                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
+        RefreshToken refreshToken = findByToken(token);
 
         if (refreshToken.isRevoked()) {
             throw new BadRequestException("Refresh token has been revoked");
@@ -52,8 +111,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     @Override
     public void revokeRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
-                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
+        RefreshToken refreshToken = findByToken(token);
         refreshToken.setRevoked(true);
         refreshTokenRepository.save(refreshToken);
     }
@@ -62,4 +120,43 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public void revokeAllUserTokens(Long userId) {
         refreshTokenRepository.revokeAllByUserId(userId);
     }
+
+    /**
+     * Xóa token hết hạn hoặc đã thu hồi theo từng lô, mỗi lô một transaction ngắn
+     * để không giữ khóa lâu trên bảng refresh_tokens.
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void purgeExpiredAndRevoked() {
+        Instant now = Instant.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredOrRevokedBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired or revoked refresh tokens", total);
+        }
+    }
+
+    private RefreshToken findByToken(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
+        refreshToken.setToken(token);
+        return refreshToken;
+    }
+
+    private static String hash(String token) {
+        if (token == null) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.dto.request.ReportExportJobRequest;
+import com.ecommerce.platform.dto.response.ReportJobResponse;
+import com.ecommerce.platform.exception.BadRequestException;
+import com.ecommerce.platform.exception.ResourceNotFoundException;
+import com.ecommerce.platform.service.ReportJobService;
+import com.ecommerce.platform.service.ReportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Xuất báo cáo lớn ở background: request chỉ submit job rồi trả về ngay,
+ * worker pool giới hạn ghi file ra đĩa, client poll tiến độ và tải file khi xong.
+ * Trạng thái job giữ trong bộ nhớ; file đã xong được giữ trong một khoảng thời gian cấu hình được.
+ */
+@Service
+@Slf4j
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReportService reportService;
+    private final Path jobDirectory;
+    private final Duration retention;
+    private final ThreadPoolExecutor workers;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    public ReportJobServiceImpl(ReportService reportService,
+                                @Value("${report.jobs.directory:${java.io.tmpdir}/ecommerce-report-jobs}") String jobDirectory,
+                                @Value("${report.jobs.retention-minutes:60}") long retentionMinutes,
+                                @Value("${report.jobs.workers:2}") int workerCount,
+                                @Value("${report.jobs.queue-capacity:20}") int queueCapacity) {
+        this.reportService = reportService;
+        this.jobDirectory = Paths.get(jobDirectory);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(jobDirectory);
+        // Trạng thái job chỉ nằm trong bộ nhớ nên file của lần chạy trước không còn ai tải được
+        try (Stream<Path> files = Files.list(jobDirectory)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public ReportJobResponse submitExport(Long userId, ReportExportJobRequest request) {
+        String format = request.getFormat() != null ? request.getFormat().toLowerCase() : "xlsx";
+        boolean gzip = "csv".equals(format) && request.isGzip();
+
+        String jobId = UUID.randomUUID().toString();
+        String fileName = String.format("orders_report_%d%s.%s",
+                request.getYear(),
+                (request.getMonth() != null ? "_" + request.getMonth() : ""),
+                gzip ? "csv.gz" : format);
+
+        ReportJob job = new ReportJob(jobId, userId, request, format, gzip, fileName);
+        job.estimatedRows = reportService.estimateExportRows(request.getYear(), request.getMonth(), request.getStatus());
+        jobs.put(jobId, job);
+
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy: trả 503 + Retry-After (GlobalExceptionHandler)
+            jobs.remove(jobId);
+            throw e;
+        }
+
+        log.info("Report job {} submitted by user {} ({} {}, ~{} rows)",
+                jobId, userId, format, fileName, job.estimatedRows);
+        return toResponse(job);
+    }
+
+    @Override
+    public ReportJobResponse getJob(String jobId, Long userId) {
+        return toResponse(findOwnedJob(jobId, userId));
+    }
+
+    @Override
+    public Path getResultFile(String jobId, Long userId) {
+        ReportJob job = findOwnedJob(jobId, userId);
+        if (job.status != JobStatus.COMPLETED || job.file == null || !Files.exists(job.file)) {
+            throw new BadRequestException("Báo cáo chưa sẵn sàng để tải: " + job.status);
+        }
+        return job.file;
+    }
+
+    private ReportJob findOwnedJob(String jobId, Long userId) {
+        ReportJob job = jobs.get(jobId);
+        // Job của người khác trả 404 giống job không tồn tại, không lộ jobId hợp lệ
+        if (job == null || !job.ownerId.equals(userId)) {
+            throw new ResourceNotFoundException("Report job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(ReportJob job) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        Path partFile = jobDirectory.resolve(job.id + ".part");
+        Path finalFile = jobDirectory.resolve(job.id + "-" + job.fileName);
+        ReportExportJobRequest request = job.request;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partFile), OUTPUT_BUFFER_SIZE)) {
+            if ("csv".equals(job.format)) {
+                reportService.exportOrdersCsv(request.getYear(), request.getMonth(), request.getStatus(),
+                        job.gzip, out, job.rowsWritten::set);
+            } else {
+                reportService.exportOrders(request.getYear(), request.getMonth(), request.getStatus(),
+                        out, job.rowsWritten::set);
+            }
+        } catch (Exception e) {
+            log.error("Report job {} failed", job.id, e);
+            deleteQuietly(partFile);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+            job.finishedAt = LocalDateTime.now();
+            job.expiresAt = job.finishedAt.plus(retention);
+            return;
+        }
+
+        try {
+            Files.move(partFile, finalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = finalFile;
+            job.status = JobStatus.COMPLETED;
+        } catch (IOException e) {
+            log.error("Report job {} could not publish its file", job.id, e);
+            deleteQuietly(partFile);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        }
+        job.finishedAt = LocalDateTime.now();
+        job.expiresAt = job.finishedAt.plus(retention);
+        log.info("Report job {} finished: {} ({} rows)", job.id, job.status, job.rowsWritten.get());
+    }
+
+    /**
+     * Xóa các job (và file) đã hết hạn lưu giữ.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval-ms:300000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            if (job.expiresAt == null || job.expiresAt.isAfter(now)) {
+                return false;
+            }
+            if (job.file != null) {
+                deleteQuietly(job.file);
+            }
+            return true;
+        });
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        Long fileSize = null;
+        if (job.file != null) {
+            try {
+                fileSize = Files.size(job.file);
+            } catch (IOException ignored) {
+                // File đã bị xóa
+            }
+        }
+        return ReportJobResponse.builder()
+                .jobId(job.id)
+                .status(job.status.name())
+                .format(job.gzip ? "csv.gz" : job.format)
+                .fileName(job.fileName)
+                .rowsWritten(job.rowsWritten.get())
+                .estimatedRows(job.estimatedRows)
+                .fileSize(fileSize)
+                .error(job.error)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .expiresAt(job.expiresAt)
+                .build();
+    }
+
+    private enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final Long ownerId;
+        private final ReportExportJobRequest request;
+        private final String format;
+        private final boolean gzip;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+
+        private volatile long estimatedRows;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile Path file;
+        private volatile String error;
+
+        private ReportJob(String id, Long ownerId, ReportExportJobRequest request,
+                          String format, boolean gzip, String fileName) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.request = request;
+            this.format = format;
+            this.gzip = gzip;
+            this.fileName = fileName;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.entity.DailyReportRollup;
+import com.ecommerce.platform.entity.Order;
+import com.ecommerce.platform.entity.Payment;
+import com.ecommerce.platform.exception.BadRequestException;
+import com.ecommerce.platform.repository.DailyReportRollupRepository;
+import com.ecommerce.platform.repository.OrderRepository;
+import com.ecommerce.platform.service.DashboardService;
+import com.ecommerce.platform.service.ReportRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportRollupServiceImpl implements ReportRollupService {
+
+    private final DailyReportRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final DashboardService dashboardService;
+
+    @Value("${report.rollup.reconcile-days:3}")
+    private int reconcileDays;
+
+    /**
+     * Gọi trong cùng transaction với việc tạo Order + Payment.
+     */
+    @Override
+    @Transactional
+    public void recordOrderPlaced(Order order, Payment payment) {
+        apply(order, order.getStatus(), payment, payment != null ? payment.getStatus() : null, 1);
+        evictDashboardAfterCommit(order);
+    }
+
+    /**
+     * Chuyển đơn hàng từ khóa cũ sang khóa mới: -1 ở (trạng thái cũ), +1 ở (trạng thái mới).
+     * Không làm gì nếu khóa không đổi.
+     */
+    @Override
+    @Transactional
+    public void recordStateChange(Order order, Order.OrderStatus previousOrderStatus,
+                                  Payment payment, Payment.PaymentStatus previousPaymentStatus) {
+        Payment.PaymentStatus currentPaymentStatus = payment != null ? payment.getStatus() : null;
+        if (previousOrderStatus == order.getStatus()
+                && Objects.equals(previousPaymentStatus, currentPaymentStatus)) {
+            return;
+        }
+        apply(order, previousOrderStatus, payment, previousPaymentStatus, -1);
+        apply(order, order.getStatus(), payment, currentPaymentStatus, 1);
+        evictDashboardAfterCommit(order);
+    }
+
+    /**
+     * Số liệu dashboard của các khoảng đã kết thúc chứa ngày đặt đơn (đơn cũ); chỉ xóa sau khi delta đã commit
+     * để request khác không kịp nạp lại số liệu chưa commit vào cache. Đơn đặt hôm nay chỉ ảnh hưởng các khoảng
+     * còn mở, vốn dùng TTL ngắn, nên không cần xóa gì.
+     */
+    private void evictDashboardAfterCommit(Order order) {
+        if (order.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate orderDate = order.getCreatedAt().toLocalDate();
+        if (!orderDate.isBefore(LocalDate.now())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dashboardService.evictPeriodsContaining(orderDate);
+                }
+            });
+        } else {
+            dashboardService.evictPeriodsContaining(orderDate);
+        }
+    }
+
+    private void apply(Order order, Order.OrderStatus orderStatus, Payment payment,
+                       Payment.PaymentStatus paymentStatus, int sign) {
+        if (order.getCreatedAt() == null || orderStatus == null) {
+            return;
+        }
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        rollupRepository.applyDelta(
+                order.getCreatedAt().toLocalDate(),
+                orderStatus.name(),
+                paymentStatus != null ? paymentStatus.name() : Payment.PaymentStatus.PENDING.name(),
+                payment != null && payment.getMethod() != null
+                        ? payment.getMethod().name()
+                        : DailyReportRollup.NO_PAYMENT_METHOD,
+                sign,
+                amountOrZero(order.getSubtotal()).multiply(factor),
+                amountOrZero(order.getTotalAmount()).multiply(factor),
+                amountOrZero(order.getTaxAmount()).multiply(factor));
+    }
+
+    private BigDecimal amountOrZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Tính lại rollup cho các ngày trong [from, to] từ bảng orders/payments (backfill, đối soát).
+     */
+    @Override
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new BadRequestException("Khoảng thời gian không hợp lệ");
+        }
+        LocalDate toExclusive = to.plusDays(1);
+        int deleted = rollupRepository.deleteByReportDateRange(from, toExclusive);
+        int inserted = rollupRepository.insertAggregatedFromOrders(from.atStartOfDay(), toExclusive.atStartOfDay());
+        log.info("Rebuilt report rollups {} -> {}: {} rows removed, {} rows inserted", from, to, deleted, inserted);
+        // Số liệu của các khoảng "đã đóng" trên dashboard được cache với TTL dài, phải xóa khi đối soát
+        dashboardService.evictCache();
+        return inserted;
+    }
+
+    /**
+     * Đối soát hằng đêm các ngày gần nhất (không gồm hôm nay để tránh tranh chấp với cập nhật trực tiếp).
+     */
+    @Scheduled(cron = "${report.rollup.reconcile-cron:0 30 2 * * *}")
+    @Transactional
+    public void reconcileRecentDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        rebuild(yesterday.minusDays(Math.max(reconcileDays, 1) - 1L), yesterday);
+    }
+
+    /**
+     * Backfill lần đầu khi bảng rollup còn trống nhưng đã có đơn hàng (ví dụ dữ liệu cũ, DataSeeder).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() > 0 || orderRepository.count() == 0) {
+            return;
+        }
+        rebuild(LocalDate.of(2000, 1, 1), LocalDate.now());
+    }
+}
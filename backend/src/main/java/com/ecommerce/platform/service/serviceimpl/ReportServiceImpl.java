@@ -1,55 +1,116 @@
 package com.ecommerce.platform.service.serviceimpl;
 
 import com.ecommerce.platform.dto.request.OrderStatusReport;
+import com.ecommerce.platform.dto.response.CategorySalesResponse;
+import com.ecommerce.platform.dto.response.LowStockProductResponse;
+import com.ecommerce.platform.dto.response.RevenueSeriesResponse;
+import com.ecommerce.platform.dto.response.TrendingProductResponse;
 import com.ecommerce.platform.entity.Order;
 import com.ecommerce.platform.entity.Payment;
 import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.exception.BadRequestException;
+import com.ecommerce.platform.repository.CategoryRepository;
+import com.ecommerce.platform.repository.DailyReportRollupRepository;
+import com.ecommerce.platform.repository.OrderItemRepository;
 import com.ecommerce.platform.repository.OrderRepository;
 import com.ecommerce.platform.repository.ProductRepository;
 import com.ecommerce.platform.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import javax.sql.DataSource;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
 public class ReportServiceImpl implements ReportService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
+    private final DailyReportRollupRepository rollupRepository;
+    private final CategoryRepository categoryRepository;
+    private final LowStockTracker lowStockTracker;
+    private final TrendingProductLookup trendingProductLookup;
+    private final EntityManager entityManager;
+    private final DataSource dataSource;
+
+    private static final int MAX_SERIES_BUCKETS = 5000;
+    private static final Set<String> SERIES_GROUPINGS = Set.of("none", "status", "method", "category");
+
+    private static final int EXPORT_ROW_WINDOW = 500;
+
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] EXPORT_COLUMNS = {
+            "Order Code", "Customer", "Phone", "Status",
+            "Subtotal", "Shipping Fee", "Total Amount", "Created At",
+            "Address"
+    };
+
+    private static final int[] EXPORT_COLUMN_WIDTHS = {30, 25, 15, 12, 15, 15, 15, 28, 50};
 
     // --- Helper Method để tránh lặp logic xử lý ngày tháng ---
-    private LocalDateTime getStartDateTime(LocalDate date) {
-        return (date != null) ? date.atStartOfDay() : LocalDateTime.of(2000, 1, 1, 0, 0);
+    // Các khoảng thời gian đều là nửa mở [start, end)
+    // Dashboard đọc từ bảng rollup theo ngày (report_daily_rollups) thay vì aggregate trên orders/payments
+    private LocalDate getStartDate(LocalDate date) {
+        return (date != null) ? date : LocalDate.of(2000, 1, 1);
+    }
+
+    private LocalDate getEndDateExclusive(LocalDate date) {
+        return (date != null) ? date.plusDays(1) : LocalDate.now().plusDays(1);
     }
 
-    private LocalDateTime getEndDateTime(LocalDate date) {
-        return (date != null) ? date.atTime(LocalTime.MAX) : LocalDateTime.now();
+    private LocalDateTime getPeriodStart(int year, Integer month) {
+        return LocalDate.of(year, month != null ? month : 1, 1).atStartOfDay();
+    }
+
+    private LocalDateTime getPeriodEnd(int year, Integer month) {
+        LocalDateTime start = getPeriodStart(year, month);
+        return month != null ? start.plusMonths(1) : start.plusYears(1);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderStatusReport> getOrderStatusReport(LocalDate from, LocalDate to, List<Order.OrderStatus> statuses) {
-        LocalDateTime fromTime = getStartDateTime(from);
-        LocalDateTime toTime = getEndDateTime(to);
-
         List<Order.OrderStatus> statusList = (statuses == null || statuses.isEmpty())
                 ? List.of(Order.OrderStatus.values())
                 : statuses;
 
-        List<OrderStatusReport> rawData = orderRepository.countOrdersByStatusIn(fromTime, toTime, statusList);
+        List<Object[]> rawData = rollupRepository.sumOrderCountByOrderStatus(
+                getStartDate(from), getEndDateExclusive(to));
 
-        Map<Order.OrderStatus, Long> map = rawData.stream()
-                .collect(Collectors.toMap(OrderStatusReport::getStatus, OrderStatusReport::getTotal));
+        Map<Order.OrderStatus, Long> map = new EnumMap<>(Order.OrderStatus.class);
+        for (Object[] row : rawData) {
+            map.put(Order.OrderStatus.valueOf((String) row[0]), ((Number) row[1]).longValue());
+        }
 
         return statusList.stream()
                 .map(status -> new OrderStatusReport(status, map.getOrDefault(status, 0L)))
@@ -57,20 +118,24 @@ public class ReportServiceImpl implements ReportService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countOrders(LocalDate from, LocalDate to) {
-        if (from == null && to == null) return orderRepository.count();
-        return orderRepository.countByCreatedAtBetween(getStartDateTime(from), getEndDateTime(to));
+        Long count = rollupRepository.sumOrderCount(getStartDate(from), getEndDateExclusive(to));
+        return count != null ? count : 0L;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal getTotalRevenue(LocalDate from, LocalDate to) {
-        BigDecimal revenue = orderRepository.calculateTotalRevenueRange(getStartDateTime(from), getEndDateTime(to));
+        BigDecimal revenue = rollupRepository.sumTotalAmount(getStartDate(from), getEndDateExclusive(to));
         return revenue != null ? revenue : BigDecimal.ZERO;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Long> getPaymentStats(LocalDate from, LocalDate to) {
-        List<Object[]> results = orderRepository.countPaymentStatusRange(getStartDateTime(from), getEndDateTime(to));
+        List<Object[]> results = rollupRepository.sumOrderCountByPaymentStatus(
+                getStartDate(from), getEndDateExclusive(to));
 
         Map<String, Long> stats = new HashMap<>();
         // Khởi tạo tất cả status bằng 0 để dashboard đẹp, không bị lỗi thiếu data
@@ -80,15 +145,17 @@ public class ReportServiceImpl implements ReportService {
 
         if (results != null) {
             for (Object[] row : results) {
-                if (row[0] != null) stats.put(row[0].toString(), (Long) row[1]);
+                if (row[0] != null) stats.put(row[0].toString(), ((Number) row[1]).longValue());
             }
         }
         return stats;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<Integer, BigDecimal> getMonthlyRevenueReport(int year) {
-        List<Object[]> results = orderRepository.getMonthlyRevenueByYear(year);
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        List<Object[]> results = rollupRepository.sumCompletedRevenueByMonth(yearStart, yearStart.plusYears(1));
         Map<Integer, BigDecimal> monthlyData = new HashMap<>();
 
         for (int i = 1; i <= 12; i++) {
@@ -97,17 +164,39 @@ public class ReportServiceImpl implements ReportService {
 
         if (results != null) {
             for (Object[] row : results) {
-                monthlyData.put((Integer) row[0], (BigDecimal) row[1]);
+                monthlyData.put(((Number) row[0]).intValue(), (BigDecimal) row[1]);
             }
         }
         return monthlyData;
     }
 
+    private void validateMonth(Integer month) {
+        if (month != null && (month < 1 || month > 12)) {
+            throw new BadRequestException("Tháng không hợp lệ: " + month);
+        }
+    }
+
     @Override
-    public byte[] exportOrders(Integer year, Integer month, Order.OrderStatus status) {
-        List<Order> orders = orderRepository.findOrdersForExport(year, month, status);
+    @Transactional(readOnly = true)
+    public void exportOrders(Integer year, Integer month, Order.OrderStatus status, OutputStream out) throws IOException {
+        exportOrders(year, month, status, out, rows -> { });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(Integer year, Integer month, Order.OrderStatus status, OutputStream out,
+                             LongConsumer progress) throws IOException {
+        validateMonth(month);
+        LocalDateTime start = getPeriodStart(year, month);
+        LocalDateTime end = getPeriodEnd(year, month);
+
+        // SXSSF chỉ giữ EXPORT_ROW_WINDOW dòng trong RAM, phần còn lại flush ra file tạm
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (Stream<Order> orders = (status != null)
+                ? orderRepository.streamOrdersForExportByStatus(start, end, status)
+                : orderRepository.streamOrdersForExport(start, end)) {
 
-        try (Workbook workbook = new XSSFWorkbook()) {
             Sheet sheet = workbook.createSheet("Orders Report");
 
             // Style cho Header
@@ -117,20 +206,18 @@ public class ReportServiceImpl implements ReportService {
             headerStyle.setFont(font);
 
             Row headerRow = sheet.createRow(0);
-            String[] columns = {
-                    "Order Code", "Customer", "Phone", "Status",
-                    "Subtotal", "Shipping Fee", "Total Amount", "Created At",
-                    "Address"
-            };
-
-            for (int i = 0; i < columns.length; i++) {
+            for (int i = 0; i < EXPORT_COLUMNS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
+                cell.setCellValue(EXPORT_COLUMNS[i]);
                 cell.setCellStyle(headerStyle);
+                // Độ rộng cố định: autoSizeColumn phải quét toàn bộ dòng nên không dùng được với SXSSF
+                sheet.setColumnWidth(i, EXPORT_COLUMN_WIDTHS[i] * 256);
             }
 
             int rowIdx = 1;
-            for (Order o : orders) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order o = iterator.next();
                 Row row = sheet.createRow(rowIdx++);
                 row.createCell(0).setCellValue(o.getOrderCode());
                 row.createCell(1).setCellValue(o.getCustomer() != null ? o.getCustomer().getFullName() : "N/A");
@@ -141,22 +228,63 @@ public class ReportServiceImpl implements ReportService {
                 row.createCell(6).setCellValue(o.getTotalAmount() != null ? o.getTotalAmount().doubleValue() : 0);
                 row.createCell(7).setCellValue(o.getCreatedAt().toString());
                 row.createCell(8).setCellValue(o.getShippingAddress());
-            }
 
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
+                // Giải phóng persistence context theo từng cửa sổ để bộ nhớ không tăng theo số đơn
+                if (rowIdx % EXPORT_ROW_WINDOW == 0) {
+                    entityManager.clear();
+                    progress.accept(rowIdx - 1L);
+                }
             }
+            progress.accept(rowIdx - 1L);
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
             workbook.write(out);
-            return out.toByteArray();
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Lỗi xuất file Excel: " + e.getMessage());
+    @Override
+    public void exportOrdersCsv(Integer year, Integer month, Order.OrderStatus status, boolean gzip,
+                                OutputStream out) throws IOException {
+        exportOrdersCsv(year, month, status, gzip, out, rows -> { });
+    }
+
+    @Override
+    public void exportOrdersCsv(Integer year, Integer month, Order.OrderStatus status, boolean gzip,
+                                OutputStream out, LongConsumer progress) throws IOException {
+        validateMonth(month);
+        LocalDateTime start = getPeriodStart(year, month);
+        LocalDateTime end = getPeriodEnd(year, month);
+
+        // COPY không hỗ trợ bind parameter: các giá trị ghép vào đều là timestamp ISO và tên enum
+        String sql = "COPY (SELECT o.order_code, u.full_name, u.phone, o.status, o.subtotal, o.shipping_fee, "
+                + "o.total_amount, o.created_at, o.shipping_address "
+                + "FROM \"ecommerce-platform\".orders o "
+                + "JOIN \"ecommerce-platform\".users u ON u.id = o.customer_id "
+                + "WHERE o.created_at >= '" + start + "' AND o.created_at < '" + end + "'"
+                + (status != null ? " AND o.status = '" + status.name() + "'" : "")
+                + " ORDER BY o.created_at) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+        // Đóng target (kể cả khi lỗi) để GZIPOutputStream ghi trailer và giải phóng Deflater (bộ nhớ native);
+        // stream của caller (response / file) không bị đóng theo
+        try (OutputStream target = gzip
+                ? new GZIPOutputStream(new NonClosingOutputStream(out), CSV_BUFFER_SIZE)
+                : new NonClosingOutputStream(out);
+             Connection connection = dataSource.getConnection()) {
+            // Postgres đẩy thẳng từng byte CSV ra response, không map entity hay tạo object cho từng dòng
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            long rows = copyManager.copyOut(sql, new LineCountingOutputStream(target, progress));
+            progress.accept(rows);
+        } catch (SQLException e) {
+            throw new IOException("Lỗi xuất file CSV: " + e.getMessage(), e);
         }
+        out.flush();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getBestSeller() {
         // Lấy top 1 sản phẩm
         List<Product> topProducts = productRepository.findTopBySoldCount(PageRequest.of(0, 1));
@@ -176,16 +304,251 @@ public class ReportServiceImpl implements ReportService {
     }
 
     @Override
-    public Map<String, Object> getLowStockDetail(Integer threshold) {
-        // Lấy danh sách sản phẩm sắp hết, sắp xếp từ thấp đến cao
-        List<Product> lowStockProducts = productRepository.findByStockQuantityLessThanAndStatusOrderByStockQuantityAsc(
-                threshold, Product.ProductStatus.ACTIVE);
+    @Transactional(readOnly = true)
+    public List<CategorySalesResponse> getCategorySales(LocalDate from, LocalDate to) {
+        // 2 query: doanh số theo danh mục gán trực tiếp cho sản phẩm + toàn bộ cây danh mục (id, parent, name)
+        List<Object[]> salesRows = orderItemRepository.sumCompletedSalesByCategory(
+                getStartDate(from).atStartOfDay(), getEndDateExclusive(to).atStartOfDay());
+        List<Object[]> treeRows = categoryRepository.findTreeSnapshot();
+
+        Map<Long, CategorySalesResponse> nodes = new LinkedHashMap<>();
+        for (Object[] row : treeRows) {
+            Long id = (Long) row[0];
+            nodes.put(id, CategorySalesResponse.builder()
+                    .id(id)
+                    .parentId((Long) row[1])
+                    .name((String) row[2])
+                    .ownRevenue(BigDecimal.ZERO)
+                    .revenue(BigDecimal.ZERO)
+                    .build());
+        }
+        for (Object[] row : salesRows) {
+            CategorySalesResponse node = nodes.get((Long) row[0]);
+            if (node == null) {
+                continue;
+            }
+            node.setOwnQuantity(row[1] != null ? ((Number) row[1]).longValue() : 0L);
+            node.setOwnRevenue(row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO);
+        }
+
+        List<CategorySalesResponse> roots = new ArrayList<>();
+        for (CategorySalesResponse node : nodes.values()) {
+            CategorySalesResponse parent = node.getParentId() != null ? nodes.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+
+        // Duyệt hậu thứ tự bằng stack (không đệ quy): con được cộng xong trước khi cộng vào cha
+        Set<Long> visited = new HashSet<>();
+        Deque<CategorySalesResponse> stack = new ArrayDeque<>();
+        Deque<CategorySalesResponse> postOrder = new ArrayDeque<>();
+        for (CategorySalesResponse root : roots) {
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                CategorySalesResponse node = stack.pop();
+                if (!visited.add(node.getId())) {
+                    continue;
+                }
+                postOrder.push(node);
+                node.getChildren().forEach(stack::push);
+            }
+        }
+        for (CategorySalesResponse node : postOrder) {
+            long quantity = node.getOwnQuantity();
+            BigDecimal revenue = node.getOwnRevenue();
+            for (CategorySalesResponse child : node.getChildren()) {
+                quantity += child.getQuantity();
+                revenue = revenue.add(child.getRevenue());
+            }
+            node.setQuantity(quantity);
+            node.setRevenue(revenue);
+        }
+
+        Comparator<CategorySalesResponse> byRevenue =
+                Comparator.comparing(CategorySalesResponse::getRevenue).reversed();
+        nodes.values().forEach(node -> node.getChildren().sort(byRevenue));
+        roots.sort(byRevenue);
+        return roots;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RevenueSeriesResponse getRevenueSeries(LocalDate from, LocalDate to, String granularity, String groupBy) {
+        SeriesGranularity unit = SeriesGranularity.parse(granularity);
+        String grouping = (groupBy == null || groupBy.isBlank()) ? "none" : groupBy.trim().toLowerCase();
+        if (!SERIES_GROUPINGS.contains(grouping)) {
+            throw new BadRequestException("groupBy phải là status, method hoặc category");
+        }
+        LocalDate toDate = (to != null) ? to : LocalDate.now();
+        LocalDate fromDate = (from != null) ? from : toDate.minusDays(29);
+        if (fromDate.isAfter(toDate)) {
+            throw new BadRequestException("from phải trước hoặc bằng to");
+        }
+
+        // Khung bucket cố định: [first, end) với end là đầu ngày sau "to"
+        LocalDateTime start = fromDate.atStartOfDay();
+        LocalDateTime end = toDate.plusDays(1).atStartOfDay();
+        LocalDateTime first = unit.truncate(start);
+        long bucketCount = unit.index(first, unit.truncate(end.minusNanos(1))) + 1;
+        if (bucketCount > MAX_SERIES_BUCKETS) {
+            throw new BadRequestException("Khoảng thời gian quá dài cho granularity " + unit.sqlUnit
+                    + " (tối đa " + MAX_SERIES_BUCKETS + " điểm)");
+        }
+        int size = (int) bucketCount;
+
+        // Ngày/tuần/tháng theo trạng thái hoặc phương thức: đọc từ bảng rollup; còn lại đọc từ orders
+        List<Object[]> rows;
+        if ("category".equals(grouping)) {
+            rows = orderItemRepository.sumCompletedRevenueSeriesByCategory(unit.sqlUnit, start, end);
+        } else if (unit == SeriesGranularity.HOUR) {
+            rows = orderRepository.sumCompletedRevenueSeries(unit.sqlUnit, grouping, start, end);
+        } else {
+            rows = rollupRepository.sumCompletedRevenueSeries(unit.sqlUnit, grouping, fromDate, toDate.plusDays(1));
+        }
+
+        String[] buckets = new String[size];
+        LocalDateTime bucket = first;
+        for (int i = 0; i < size; i++) {
+            buckets[i] = unit == SeriesGranularity.HOUR ? bucket.toString() : bucket.toLocalDate().toString();
+            bucket = unit.next(bucket);
+        }
+
+        // Một lượt qua các dòng: vị trí bucket tính trực tiếp từ thời điểm, bucket trống giữ 0
+        Map<String, double[]> valuesByKey = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            long index = unit.index(first, toLocalDateTime(row[0]));
+            if (index < 0 || index >= size || row[2] == null) {
+                continue;
+            }
+            String key = row[1] != null ? row[1].toString() : "UNKNOWN";
+            valuesByKey.computeIfAbsent(key, k -> new double[size])[(int) index] += ((Number) row[2]).doubleValue();
+        }
+
+        List<RevenueSeriesResponse.Series> series = new ArrayList<>(valuesByKey.size());
+        for (Map.Entry<String, double[]> entry : valuesByKey.entrySet()) {
+            double total = 0;
+            for (double value : entry.getValue()) {
+                total += value;
+            }
+            series.add(RevenueSeriesResponse.Series.builder()
+                    .key(entry.getKey())
+                    .values(entry.getValue())
+                    .total(total)
+                    .build());
+        }
+        series.sort(Comparator.comparingDouble(RevenueSeriesResponse.Series::getTotal).reversed());
+
+        return RevenueSeriesResponse.builder()
+                .granularity(unit.sqlUnit)
+                .groupBy(grouping)
+                .from(fromDate)
+                .to(toDate)
+                .buckets(buckets)
+                .series(series)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toLocalDateTime();
+        }
+        throw new IllegalStateException("Unexpected bucket type: " + value);
+    }
+
+    /**
+     * Đơn vị bucket, khớp với date_trunc của PostgreSQL (tuần bắt đầu từ thứ Hai).
+     */
+    private enum SeriesGranularity {
+        HOUR("hour"), DAY("day"), WEEK("week"), MONTH("month");
+
+        private final String sqlUnit;
+
+        SeriesGranularity(String sqlUnit) {
+            this.sqlUnit = sqlUnit;
+        }
+
+        static SeriesGranularity parse(String value) {
+            if (value == null || value.isBlank()) {
+                return DAY;
+            }
+            for (SeriesGranularity unit : values()) {
+                if (unit.sqlUnit.equalsIgnoreCase(value.trim())) {
+                    return unit;
+                }
+            }
+            throw new BadRequestException("granularity phải là hour, day, week hoặc month");
+        }
+
+        LocalDateTime truncate(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+                case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            };
+        }
 
+        LocalDateTime next(LocalDateTime bucket) {
+            return switch (this) {
+                case HOUR -> bucket.plusHours(1);
+                case DAY -> bucket.plusDays(1);
+                case WEEK -> bucket.plusWeeks(1);
+                case MONTH -> bucket.plusMonths(1);
+            };
+        }
+
+        // Vị trí của bucket (đã truncate) tính từ bucket đầu tiên
+        long index(LocalDateTime first, LocalDateTime bucket) {
+            return switch (this) {
+                case HOUR -> ChronoUnit.HOURS.between(first, bucket);
+                case DAY -> ChronoUnit.DAYS.between(first, bucket);
+                case WEEK -> ChronoUnit.WEEKS.between(first, bucket);
+                case MONTH -> ChronoUnit.MONTHS.between(first, bucket);
+            };
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrendingProductResponse> getTrendingProducts(String window, int limit) {
+        SalesTrendTracker.Window trendWindow = SalesTrendTracker.Window.fromCode(window);
+        // Thứ hạng lấy từ bộ đếm trong bộ nhớ, DB chỉ dùng để lấy tên/ảnh của top K
+        List<TrendingProductLookup.TrendingProduct> top = trendingProductLookup.findTop(trendWindow, limit, p -> true);
+
+        List<TrendingProductResponse> result = new ArrayList<>(top.size());
+        for (TrendingProductLookup.TrendingProduct entry : top) {
+            Product product = entry.product();
+            result.add(TrendingProductResponse.builder()
+                    .rank(result.size() + 1)
+                    .id(product.getId())
+                    .name(product.getName())
+                    .thumbnail(product.getThumbnail())
+                    .window(trendWindow.getCode())
+                    .windowSoldCount(entry.windowSoldCount())
+                    .soldCount(product.getSoldCount())
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getLowStockDetail(Integer threshold) {
+        // Đọc từ LowStockTracker trong bộ nhớ, không tải danh sách sản phẩm từ DB
         Map<String, Object> result = new HashMap<>();
-        result.put("totalCount", lowStockProducts.size());
+        result.put("totalCount", lowStockTracker.countBelow(threshold));
 
-        if (!lowStockProducts.isEmpty()) {
-            Product p = lowStockProducts.get(0); // Lấy thằng thấp nhất
+        List<LowStockProductResponse> lowest = lowStockTracker.lowest(threshold, 0, 1);
+        if (!lowest.isEmpty()) {
+            LowStockProductResponse p = lowest.getFirst(); // Lấy thằng thấp nhất
             result.put("name", p.getName());
             result.put("stock", p.getStockQuantity());
         }
@@ -193,4 +556,83 @@ public class ReportServiceImpl implements ReportService {
         return result;
     }
 
-}
\ No newline at end of file
+    @Override
+    public Page<LowStockProductResponse> getLowStockProducts(Integer threshold, Pageable pageable) {
+        List<LowStockProductResponse> content = lowStockTracker.lowest(
+                threshold, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, lowStockTracker.countBelow(threshold));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateExportRows(Integer year, Integer month, Order.OrderStatus status) {
+        validateMonth(month);
+        LocalDate start = getPeriodStart(year, month).toLocalDate();
+        LocalDate end = getPeriodEnd(year, month).toLocalDate();
+        Long rows = (status != null)
+                ? rollupRepository.sumOrderCountForOrderStatus(start, end, status.name())
+                : rollupRepository.sumOrderCount(start, end);
+        return rows != null ? rows : 0L;
+    }
+
+    // close() chỉ flush, để stream bọc ngoài đóng được mà không đóng stream của caller
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Đếm số dòng CSV đã ghi (ước lượng, không tính xuống dòng trong field có quote) để báo tiến độ.
+     */
+    private static class LineCountingOutputStream extends FilterOutputStream {
+
+        private static final int REPORT_EVERY = 1000;
+
+        private final LongConsumer progress;
+        private long lines;
+
+        LineCountingOutputStream(OutputStream out, LongConsumer progress) {
+            super(out);
+            this.progress = progress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (b == '\n') {
+                countLine();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    countLine();
+                }
+            }
+        }
+
+        private void countLine() {
+            lines++;
+            if (lines % REPORT_EVERY == 0) {
+                // Dòng đầu tiên là header
+                progress.accept(lines - 1);
+            }
+        }
+    }
+
+}
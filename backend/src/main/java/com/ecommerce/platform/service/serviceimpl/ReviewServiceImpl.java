@@ -1,8 +1,10 @@
 package com.ecommerce.platform.service.serviceimpl;
 
+import com.ecommerce.platform.dto.request.BulkReviewActionRequest;
 import com.ecommerce.platform.dto.request.CreateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewRequest;
 import com.ecommerce.platform.dto.request.UpdateReviewStatusRequest;
+import com.ecommerce.platform.dto.response.BulkActionResponse;
 import com.ecommerce.platform.dto.response.ReviewResponse;
 import com.ecommerce.platform.dto.response.ReviewStatisticsResponse;
 import com.ecommerce.platform.entity.Order;
@@ -15,18 +17,31 @@ import com.ecommerce.platform.repository.OrderRepository;
 import com.ecommerce.platform.repository.ProductRepository;
 import com.ecommerce.platform.repository.ReviewRepository;
 import com.ecommerce.platform.repository.UserRepository;
+import com.ecommerce.platform.service.ProductRatingStatsService;
 import com.ecommerce.platform.service.ReviewService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class ReviewServiceImpl implements ReviewService {
 
@@ -34,6 +49,11 @@ public class ReviewServiceImpl implements ReviewService {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final ProductRatingStatsService ratingStatsService;
+    private final EntityManager entityManager;
+
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int MAX_BULK_FILTER_MATCHES = 10_000;
 
     @Override
     public ReviewResponse createReview(Long customerId, CreateReviewRequest request) {
@@ -55,16 +75,9 @@ public class ReviewServiceImpl implements ReviewService {
             throw new BadRequestException("You can only review products from delivered orders");
         }
 
-        boolean productInOrder = order.getItems().stream()
-                .anyMatch(item -> item.getProduct().getId().equals(request.getProductId()));
-        if (!productInOrder) {
-            throw new BadRequestException("This product was not in your order");
-        }
-
-        if (reviewRepository
-                .findByCustomerIdAndProductIdAndOrderId(customerId, request.getProductId(), request.getOrderId())
-                .isPresent()) {
-            throw new BadRequestException("You have already reviewed this product for this order");
+        // Cùng một truy vấn EXISTS với canReviewProduct: sản phẩm có trong đơn và chưa được đánh giá
+        if (!reviewRepository.isReviewable(customerId, request.getProductId(), request.getOrderId())) {
+            throw new BadRequestException("This product was not in your order or you have already reviewed it");
         }
 
         Review review = Review.builder()
@@ -78,18 +91,20 @@ public class ReviewServiceImpl implements ReviewService {
                 .build();
 
         review = reviewRepository.save(review);
+        ratingStatsService.recordReviewChange(product.getId(), null, null, review.getRating(), review.getStatus());
         return mapToResponse(review);
     }
 
     @Override
     public ReviewResponse updateReview(Long reviewId, Long customerId, UpdateReviewRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
         if (!review.getCustomer().getId().equals(customerId)) {
             throw new BadRequestException("You can only update your own reviews");
         }
 
+        Integer previousRating = review.getRating();
         if (request.getRating() != null) {
             review.setRating(request.getRating());
         }
@@ -101,12 +116,14 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         review = reviewRepository.save(review);
+        ratingStatsService.recordReviewChange(review.getProduct().getId(),
+                previousRating, review.getStatus(), review.getRating(), review.getStatus());
         return mapToResponse(review);
     }
 
     @Override
     public void deleteReview(Long reviewId, Long customerId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
         if (!review.getCustomer().getId().equals(customerId)) {
@@ -114,70 +131,52 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         reviewRepository.delete(review);
+        ratingStatsService.recordReviewChange(review.getProduct().getId(),
+                review.getRating(), review.getStatus(), null, null);
+    }
+
+    /**
+     * Điền search_document cho các review cũ (trước khi có cột) khi khởi động.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingSearchDocuments() {
+        int filled = reviewRepository.fillMissingSearchDocuments();
+        if (filled > 0) {
+            log.info("Filled search documents for {} reviews", filled);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ReviewResponse> getCustomerReviews(Long customerId, Pageable pageable) {
-        return reviewRepository.findByCustomerId(customerId, pageable)
-                .map(this::mapToResponse);
+        return toResponsePage(reviewRepository.findByCustomerId(customerId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean canReviewProduct(Long customerId, Long productId, Long orderId) {
-
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null || !order.getCustomer().getId().equals(customerId)) {
-            return false;
-        }
-
-        if (order.getStatus() != Order.OrderStatus.DELIVERED) {
-            return false;
-        }
-
-        boolean productInOrder = order.getItems().stream()
-                .anyMatch(item -> item.getProduct().getId().equals(productId));
-        if (!productInOrder) {
-            return false;
-        }
-
-        return reviewRepository.findByCustomerIdAndProductIdAndOrderId(customerId, productId, orderId).isEmpty();
+        return reviewRepository.isReviewable(customerId, productId, orderId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ReviewResponse> getProductReviews(Long productId, Pageable pageable) {
 
-        return reviewRepository.findByProductIdAndStatus(productId, Review.ReviewStatus.ACTIVE, pageable)
-                .map(this::mapToResponse);
+        return toResponsePage(
+                reviewRepository.findByProductIdAndStatus(productId, Review.ReviewStatus.ACTIVE, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public ReviewStatisticsResponse getProductReviewStatistics(Long productId) {
-        Double averageRating = reviewRepository.calculateAverageRating(productId);
-        Integer totalReviews = reviewRepository.countActiveReviewsByProductId(productId);
-
-        Map<Integer, Integer> ratingDistribution = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            Integer count = reviewRepository.countByProductIdAndRatingAndStatus(productId, i,
-                    Review.ReviewStatus.ACTIVE);
-            ratingDistribution.put(i, count != null ? count : 0);
-        }
-
-        return ReviewStatisticsResponse.builder()
-                .productId(productId)
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .totalReviews(totalReviews != null ? totalReviews : 0)
-                .ratingDistribution(ratingDistribution)
-                .build();
+        // Đọc histogram đã tính sẵn (1 lần tra theo khóa chính) thay vì AVG/COUNT trên bảng reviews
+        return ratingStatsService.getStatistics(productId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public ReviewResponse getReviewById(Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
         return mapToResponse(review);
     }
@@ -196,6 +195,23 @@ public class ReviewServiceImpl implements ReviewService {
             String search,
             Pageable pageable) {
 
+        return toResponsePage(reviewRepository.findAll(
+                buildFilterSpecification(status, rating, isReplied, dateFrom, dateTo,
+                        productId, categoryId, isReported, search),
+                pageable));
+    }
+
+    private org.springframework.data.jpa.domain.Specification<Review> buildFilterSpecification(
+            String status,
+            Integer rating,
+            Boolean isReplied,
+            java.time.LocalDate dateFrom,
+            java.time.LocalDate dateTo,
+            Long productId,
+            Long categoryId,
+            Boolean isReported,
+            String search) {
+
         Review.ReviewStatus reviewStatus = null;
         if (status != null && !status.isEmpty() && !status.equalsIgnoreCase("ALL")) {
             try {
@@ -208,7 +224,7 @@ public class ReviewServiceImpl implements ReviewService {
         java.time.LocalDateTime startDateTime = dateFrom != null ? dateFrom.atStartOfDay() : null;
         java.time.LocalDateTime endDateTime = dateTo != null ? dateTo.atTime(23, 59, 59) : null;
 
-        org.springframework.data.jpa.domain.Specification<Review> spec = com.ecommerce.platform.repository.specification.ReviewSpecification
+        return com.ecommerce.platform.repository.specification.ReviewSpecification
                 .filterReviews(
                         reviewStatus,
                         rating,
@@ -219,31 +235,33 @@ public class ReviewServiceImpl implements ReviewService {
                         categoryId,
                         isReported,
                         search);
-
-        return reviewRepository.findAll(spec, pageable)
-                .map(this::mapToResponse);
     }
 
     @Override
     public ReviewResponse updateReviewStatus(Long reviewId, UpdateReviewStatusRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
+        Review.ReviewStatus previousStatus = review.getStatus();
         review.setStatus(Review.ReviewStatus.valueOf(request.getStatus().toUpperCase()));
         review = reviewRepository.save(review);
+        ratingStatsService.recordReviewChange(review.getProduct().getId(),
+                review.getRating(), previousStatus, review.getRating(), review.getStatus());
         return mapToResponse(review);
     }
 
     @Override
     public void adminDeleteReview(Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
         reviewRepository.delete(review);
+        ratingStatsService.recordReviewChange(review.getProduct().getId(),
+                review.getRating(), review.getStatus(), null, null);
     }
 
     @Override
     public ReviewResponse replyToReview(Long reviewId, com.ecommerce.platform.dto.request.ReplyReviewRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
         review.setReply(request.getReply());
@@ -255,7 +273,7 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     public void reportReview(Long reviewId, com.ecommerce.platform.dto.request.ReportReviewRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
         review.setIsReported(true);
@@ -265,7 +283,7 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     public void dismissReport(Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findWithReferencesById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId));
 
         review.setIsReported(false);
@@ -273,32 +291,120 @@ public class ReviewServiceImpl implements ReviewService {
         reviewRepository.save(review);
     }
 
+    @Override
+    public BulkActionResponse bulkModerate(BulkReviewActionRequest request) {
+        String action = request.getAction().toUpperCase();
+        boolean byIds = request.getReviewIds() != null && !request.getReviewIds().isEmpty();
+
+        List<Long> targetIds;
+        List<Long> failedIds = new ArrayList<>();
+        if (byIds) {
+            List<Long> requestedIds = request.getReviewIds().stream().distinct().toList();
+            targetIds = new ArrayList<>(requestedIds.size());
+            for (List<Long> chunk : chunks(requestedIds)) {
+                targetIds.addAll(reviewRepository.findExistingIds(chunk));
+            }
+            failedIds.addAll(requestedIds);
+            failedIds.removeAll(new java.util.HashSet<>(targetIds));
+        } else if (request.hasFilter()) {
+            targetIds = findIdsMatchingFilter(request);
+        } else {
+            throw new BadRequestException("Either reviewIds or at least one filter is required");
+        }
+
+        // Mỗi lô: 1 query gộp delta rating theo (sản phẩm, mức) + 1 câu UPDATE/DELETE theo tập id
+        Map<Long, long[]> ratingDeltas = new HashMap<>();
+        int successCount = 0;
+        for (List<Long> chunk : chunks(targetIds)) {
+            successCount += switch (action) {
+                case "HIDE" -> {
+                    collectRatingDeltas(ratingDeltas, reviewRepository.countActiveByProductAndRating(chunk), -1);
+                    yield reviewRepository.bulkUpdateStatus(chunk, Review.ReviewStatus.HIDDEN);
+                }
+                case "ACTIVATE" -> {
+                    collectRatingDeltas(ratingDeltas, reviewRepository.countInactiveByProductAndRating(chunk), 1);
+                    yield reviewRepository.bulkUpdateStatus(chunk, Review.ReviewStatus.ACTIVE);
+                }
+                case "DELETE" -> {
+                    collectRatingDeltas(ratingDeltas, reviewRepository.countActiveByProductAndRating(chunk), -1);
+                    reviewRepository.bulkDeleteImages(chunk);
+                    yield reviewRepository.bulkDelete(chunk);
+                }
+                case "DISMISS_REPORT" -> reviewRepository.bulkDismissReports(chunk);
+                default -> throw new BadRequestException("Invalid action: " + action);
+            };
+        }
+        if (!ratingDeltas.isEmpty()) {
+            ratingStatsService.recordBulkRatingChange(ratingDeltas);
+        }
+
+        log.info("Bulk review action {} applied to {} of {} reviews", action, successCount, targetIds.size());
+        return BulkActionResponse.builder()
+                .totalRequested(byIds ? targetIds.size() + failedIds.size() : targetIds.size())
+                .successCount(successCount)
+                .failedCount(failedIds.size())
+                .failedIds(failedIds)
+                .message(String.format("Successfully %s %d reviews", action.toLowerCase().replace('_', ' '), successCount))
+                .build();
+    }
+
+    // Chỉ lấy id (không tải entity) của các review khớp bộ lọc quản lý
+    private List<Long> findIdsMatchingFilter(BulkReviewActionRequest request) {
+        org.springframework.data.jpa.domain.Specification<Review> spec = buildFilterSpecification(
+                request.getStatus(), request.getRating(), request.getIsReplied(),
+                request.getDateFrom(), request.getDateTo(), request.getProductId(),
+                request.getCategoryId(), request.getIsReported(), request.getSearch());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Review> root = query.from(Review.class);
+        query.select(root.get("id"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Long> ids = entityManager.createQuery(query)
+                .setMaxResults(MAX_BULK_FILTER_MATCHES + 1)
+                .getResultList();
+        if (ids.size() > MAX_BULK_FILTER_MATCHES) {
+            throw new BadRequestException("Filter matches more than " + MAX_BULK_FILTER_MATCHES
+                    + " reviews, please narrow it down");
+        }
+        return ids;
+    }
+
+    private void collectRatingDeltas(Map<Long, long[]> deltas, List<Object[]> rows, int sign) {
+        for (Object[] row : rows) {
+            Integer rating = (Integer) row[1];
+            if (rating == null || rating < 1 || rating > 5) {
+                continue;
+            }
+            deltas.computeIfAbsent((Long) row[0], id -> new long[6])[rating] += sign * ((Number) row[2]).longValue();
+        }
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public com.ecommerce.platform.dto.response.ReviewEligibilityResponse checkReviewEligibility(Long customerId,
             Long productId) {
-        // Find all delivered orders for this customer
-        java.util.List<Order> orders = orderRepository.findByCustomerIdAndStatus(customerId,
-                Order.OrderStatus.DELIVERED);
-
-        // Find an order that contains the product and hasn't been reviewed yet
-        for (Order order : orders) {
-            boolean hasProduct = order.getItems().stream()
-                    .anyMatch(item -> item.getProduct().getId().equals(productId));
-
-            if (hasProduct) {
-                boolean alreadyReviewed = reviewRepository
-                        .findByCustomerIdAndProductIdAndOrderId(customerId, productId, order.getId())
-                        .isPresent();
-
-                if (!alreadyReviewed) {
-                    return com.ecommerce.platform.dto.response.ReviewEligibilityResponse.builder()
-                            .canReview(true)
-                            .orderId(order.getId())
-                            .message("You can review this product")
-                            .build();
-                }
-            }
+        // One query: latest delivered order of this customer that contains the product and hasn't been reviewed yet
+        java.util.List<Long> orderIds = reviewRepository.findReviewableOrderIds(customerId, productId,
+                PageRequest.of(0, 1));
+
+        if (!orderIds.isEmpty()) {
+            return com.ecommerce.platform.dto.response.ReviewEligibilityResponse.builder()
+                    .canReview(true)
+                    .orderId(orderIds.getFirst())
+                    .message("You can review this product")
+                    .build();
         }
 
         return com.ecommerce.platform.dto.response.ReviewEligibilityResponse.builder()
@@ -307,6 +413,63 @@ public class ReviewServiceImpl implements ReviewService {
                 .build();
     }
 
+    /**
+     * Map một trang review: 1 query cho trang (các quan hệ của Review là LAZY nên không kéo theo
+     * Product/User/Order) + 1 query lấy thông tin sản phẩm, khách hàng, đơn hàng và ảnh cho cả trang.
+     */
+    private Page<ReviewResponse> toResponsePage(Page<Review> page) {
+        if (page.isEmpty()) {
+            return page.map(this::mapToResponse);
+        }
+        List<Long> ids = page.getContent().stream().map(Review::getId).toList();
+
+        Map<Long, ReviewReferences> referencesById = new HashMap<>();
+        for (Object[] row : reviewRepository.findResponseReferences(ids)) {
+            ReviewReferences references = referencesById.computeIfAbsent((Long) row[0], id -> new ReviewReferences(
+                    ReviewResponse.CustomerInfo.builder()
+                            .id((Long) row[4])
+                            .fullName((String) row[5])
+                            .avatar((String) row[6])
+                            .build(),
+                    (Long) row[1], (String) row[2], (String) row[3],
+                    (Long) row[7], (String) row[8], new ArrayList<>()));
+            if (row[9] != null) {
+                references.images().add((String) row[9]);
+            }
+        }
+
+        return page.map(review -> {
+            ReviewReferences references = referencesById.get(review.getId());
+            return references != null ? mapToResponse(review, references) : mapToResponse(review);
+        });
+    }
+
+    private ReviewResponse mapToResponse(Review review, ReviewReferences references) {
+        return ReviewResponse.builder()
+                .id(review.getId())
+                .productId(references.productId())
+                .productName(references.productName())
+                .productThumbnail(references.productThumbnail())
+                .orderId(references.orderId())
+                .orderCode(references.orderCode())
+                .customer(references.customer())
+                .rating(review.getRating())
+                .comment(review.getComment())
+                .images(references.images())
+                .status(review.getStatus().name())
+                .createdAt(review.getCreatedAt())
+                .reply(review.getReply())
+                .repliedAt(review.getRepliedAt())
+                .isReported(review.getIsReported())
+                .reportReason(review.getReportReason())
+                .build();
+    }
+
+    private record ReviewReferences(ReviewResponse.CustomerInfo customer,
+                                    Long productId, String productName, String productThumbnail,
+                                    Long orderId, String orderCode, List<String> images) {
+    }
+
     private ReviewResponse mapToResponse(Review review) {
         return ReviewResponse.builder()
                 .id(review.getId())
@@ -322,7 +485,8 @@ public class ReviewServiceImpl implements ReviewService {
                         .build())
                 .rating(review.getRating())
                 .comment(review.getComment())
-                .images(review.getImages())
+                // Sao chép trong transaction: không trả collection lazy của Hibernate ra ngoài service
+                .images(review.getImages() != null ? new ArrayList<>(review.getImages()) : null)
                 .status(review.getStatus().name())
                 .createdAt(review.getCreatedAt())
                 .reply(review.getReply())
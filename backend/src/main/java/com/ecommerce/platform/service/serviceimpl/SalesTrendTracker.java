@@ -0,0 +1,339 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.entity.Order;
+import com.ecommerce.platform.exception.BadRequestException;
+import com.ecommerce.platform.repository.OrderItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bộ đếm số lượng bán theo giờ cho từng sản phẩm (chỉ lưu các giờ có bán trong 30 ngày) và bảng xếp hạng
+ * cho các cửa sổ 24h / 7 ngày / 30 ngày. Mỗi lần đặt/hủy đơn chỉ cập nhật đúng ô giờ và
+ * vị trí của sản phẩm trong bảng xếp hạng; khi sang giờ mới thì trừ đi ô giờ vừa rời cửa sổ.
+ * Giờ được tính theo giờ địa phương giống cột orders.created_at.
+ */
+@Component
+@Slf4j
+public class SalesTrendTracker {
+
+    public enum Window {
+        LAST_24_HOURS("24h", 24),
+        LAST_7_DAYS("7d", 24 * 7),
+        LAST_30_DAYS("30d", 24 * 30);
+
+        private final String code;
+        private final int hours;
+
+        Window(String code, int hours) {
+            this.code = code;
+            this.hours = hours;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public static Window fromCode(String code) {
+            for (Window window : values()) {
+                if (window.code.equalsIgnoreCase(code)) {
+                    return window;
+                }
+            }
+            throw new BadRequestException("window phải là 24h, 7d hoặc 30d");
+        }
+    }
+
+    // Số giờ được giữ = cửa sổ dài nhất
+    private static final int HOURS = Window.LAST_30_DAYS.hours;
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProductSales> salesByProduct = new HashMap<>();
+    private final Map<Window, NavigableSet<RankEntry>> rankings = new EnumMap<>(Window.class);
+    private long currentHour = -1;
+
+    public SalesTrendTracker(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+        for (Window window : Window.values()) {
+            rankings.put(window, new TreeSet<>());
+        }
+    }
+
+    /**
+     * Ghi nhận số lượng bán của một dòng đơn hàng (áp dụng sau khi transaction commit).
+     */
+    public void recordSale(Long productId, int quantity, LocalDateTime orderedAt) {
+        record(productId, quantity, orderedAt);
+    }
+
+    /**
+     * Trừ lại số lượng khi đơn bị hủy, vào đúng ô giờ lúc đơn được đặt.
+     */
+    public void recordCancellation(Long productId, int quantity, LocalDateTime orderedAt) {
+        record(productId, -quantity, orderedAt);
+    }
+
+    /**
+     * Top sản phẩm theo số lượng bán trong cửa sổ, kèm số lượng bán tương ứng.
+     */
+    public List<TrendEntry> top(Window window, int limit) {
+        return top(window, 0, limit);
+    }
+
+    /**
+     * Các hạng [offset, offset + limit) của bảng xếp hạng (dùng khi cần lấy tiếp sau khi lọc bớt).
+     */
+    public List<TrendEntry> top(Window window, int offset, int limit) {
+        advanceIfNeeded();
+        lock.readLock().lock();
+        try {
+            List<TrendEntry> result = new ArrayList<>(Math.max(0, Math.min(limit, 100)));
+            int skipped = 0;
+            for (RankEntry entry : rankings.get(window)) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                result.add(new TrendEntry(entry.productId(), entry.quantity()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void record(Long productId, int delta, LocalDateTime orderedAt) {
+        if (productId == null || delta == 0) {
+            return;
+        }
+        long hour = toHour(orderedAt != null ? orderedAt : LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(productId, delta, hour);
+                }
+            });
+        } else {
+            apply(productId, delta, hour);
+        }
+    }
+
+    private void apply(Long productId, int delta, long hour) {
+        lock.writeLock().lock();
+        try {
+            advanceTo(toHour(LocalDateTime.now()));
+            addToBucket(productId, delta, hour);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ từ order_items của 30 ngày gần nhất (trừ đơn đã hủy): lúc khởi động và định kỳ.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${report.trending.resync-interval-ms:21600000}",
+            initialDelayString = "${report.trending.resync-interval-ms:21600000}")
+    public void reload() {
+        long now = toHour(LocalDateTime.now());
+        LocalDateTime since = LocalDateTime.ofEpochSecond((now - HOURS + 1) * 3600, 0, ZoneOffset.UTC);
+        List<Object[]> rows = orderItemRepository.sumQuantityByProductAndHour(
+                since, Order.OrderStatus.CANCELLED.name());
+
+        lock.writeLock().lock();
+        try {
+            salesByProduct.clear();
+            rankings.values().forEach(Set::clear);
+            currentHour = now;
+            for (Object[] row : rows) {
+                addToBucket(((Number) row[0]).longValue(), ((Number) row[2]).intValue(), ((Number) row[1]).longValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Sales trend tracker loaded {} hourly buckets for {} products", rows.size(), salesByProduct.size());
+    }
+
+    /**
+     * Đầu mỗi giờ: đẩy các ô cũ ra khỏi cửa sổ và bỏ những sản phẩm không còn bán trong 30 ngày.
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void advanceIfNeeded() {
+        long now = toHour(LocalDateTime.now());
+        lock.readLock().lock();
+        try {
+            if (currentHour >= now) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            advanceTo(now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===== Các hàm dưới đây phải được gọi khi đang giữ write lock =====
+
+    private void advanceTo(long hour) {
+        if (currentHour < 0 || hour - currentHour >= HOURS) {
+            // Chưa nạp hoặc đã bỏ lỡ cả cửa sổ 30 ngày: mọi ô đều hết hạn
+            salesByProduct.clear();
+            rankings.values().forEach(Set::clear);
+            currentHour = Math.max(currentHour, hour);
+            return;
+        }
+        while (currentHour < hour) {
+            currentHour++;
+            Iterator<Map.Entry<Long, ProductSales>> iterator = salesByProduct.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, ProductSales> entry = iterator.next();
+                ProductSales sales = entry.getValue();
+                for (Window window : Window.values()) {
+                    // Cửa sổ tại giờ h gồm các giờ (h - hours, h]; ô h - hours vừa rời cửa sổ
+                    int leaving = sales.quantityAt(currentHour - window.hours);
+                    if (leaving != 0) {
+                        changeTotal(entry.getKey(), sales, window, -leaving);
+                    }
+                }
+                sales.dropThrough(currentHour - HOURS);
+                if (sales.totals[Window.LAST_30_DAYS.ordinal()] <= 0) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void addToBucket(Long productId, int delta, long hour) {
+        // Đồng hồ lệch nhẹ thì tính vào giờ hiện tại; ngoài 30 ngày thì bỏ qua
+        hour = Math.min(hour, currentHour);
+        if (hour <= currentHour - HOURS) {
+            return;
+        }
+        ProductSales sales = salesByProduct.get(productId);
+        if (sales == null) {
+            if (delta < 0) {
+                return;
+            }
+            sales = new ProductSales();
+            salesByProduct.put(productId, sales);
+        }
+        delta = sales.add(hour, delta);
+        if (delta == 0) {
+            return;
+        }
+        for (Window window : Window.values()) {
+            if (hour > currentHour - window.hours) {
+                changeTotal(productId, sales, window, delta);
+            }
+        }
+        if (sales.totals[Window.LAST_30_DAYS.ordinal()] <= 0) {
+            salesByProduct.remove(productId);
+        }
+    }
+
+    private void changeTotal(Long productId, ProductSales sales, Window window, int delta) {
+        NavigableSet<RankEntry> ranking = rankings.get(window);
+        int before = sales.totals[window.ordinal()];
+        int after = before + delta;
+        if (before > 0) {
+            ranking.remove(new RankEntry(before, productId));
+        }
+        if (after > 0) {
+            ranking.add(new RankEntry(after, productId));
+        }
+        sales.totals[window.ordinal()] = after;
+    }
+
+    // Giờ tính từ epoch, coi LocalDateTime như UTC để khớp với EXTRACT(EPOCH FROM created_at) trong SQL
+    private static long toHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+
+    // Các ô giờ có bán, sắp theo giờ tăng dần: phần lớn sản phẩm chỉ bán trong vài giờ của 30 ngày
+    // nên không cấp phát sẵn đủ 720 ô cho mỗi sản phẩm
+    private static final class ProductSales {
+        private long[] hours = new long[4];
+        private int[] quantities = new int[4];
+        private int size;
+        private final int[] totals = new int[Window.values().length];
+
+        private int quantityAt(long hour) {
+            int index = Arrays.binarySearch(hours, 0, size, hour);
+            return index >= 0 ? quantities[index] : 0;
+        }
+
+        // Cộng delta vào ô giờ nhưng không để ô âm; trả về phần thực sự được cộng
+        private int add(long hour, int delta) {
+            int index = Arrays.binarySearch(hours, 0, size, hour);
+            if (index < 0) {
+                if (delta <= 0) {
+                    return 0;
+                }
+                index = -index - 1;
+                if (size == hours.length) {
+                    hours = Arrays.copyOf(hours, size * 2);
+                    quantities = Arrays.copyOf(quantities, size * 2);
+                }
+                System.arraycopy(hours, index, hours, index + 1, size - index);
+                System.arraycopy(quantities, index, quantities, index + 1, size - index);
+                hours[index] = hour;
+                quantities[index] = delta;
+                size++;
+                return delta;
+            }
+            delta = Math.max(delta, -quantities[index]);
+            quantities[index] += delta;
+            if (quantities[index] == 0) {
+                System.arraycopy(hours, index + 1, hours, index, size - index - 1);
+                System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+                size--;
+            }
+            return delta;
+        }
+
+        // Bỏ các ô từ giờ hour trở về trước (đã rời mọi cửa sổ)
+        private void dropThrough(long hour) {
+            int expired = 0;
+            while (expired < size && hours[expired] <= hour) {
+                expired++;
+            }
+            if (expired > 0) {
+                System.arraycopy(hours, expired, hours, 0, size - expired);
+                System.arraycopy(quantities, expired, quantities, 0, size - expired);
+                size -= expired;
+            }
+        }
+    }
+
+    // Sắp theo số lượng giảm dần, hòa thì theo id tăng dần
+    private record RankEntry(int quantity, long productId) implements Comparable<RankEntry> {
+        @Override
+        public int compareTo(RankEntry other) {
+            int byQuantity = Integer.compare(other.quantity, quantity);
+            return byQuantity != 0 ? byQuantity : Long.compare(productId, other.productId);
+        }
+    }
+
+    public record TrendEntry(Long productId, int quantity) {
+    }
+}
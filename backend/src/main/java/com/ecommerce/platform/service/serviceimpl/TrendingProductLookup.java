@@ -0,0 +1,71 @@
+package com.ecommerce.platform.service.serviceimpl;
+
+import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Top sản phẩm bán chạy theo SalesTrendTracker, nạp Product (kèm category) theo lô.
+ * Sản phẩm không qua bộ lọc (đã xóa, ngừng bán...) bị bỏ qua và lấy tiếp các hạng sau
+ * cho tới khi đủ limit hoặc hết bảng xếp hạng.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrendingProductLookup {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final SalesTrendTracker salesTrendTracker;
+    private final ProductRepository productRepository;
+
+    @Transactional(readOnly = true)
+    public List<TrendingProduct> findTop(SalesTrendTracker.Window window, int limit, Predicate<Product> eligible) {
+        int size = Math.clamp(limit, 1, MAX_LIMIT);
+        List<TrendingProduct> result = new ArrayList<>(size);
+        // Bảng xếp hạng có thể đổi giữa các lần đọc: một sản phẩm chỉ lấy một lần
+        Set<Long> seen = new HashSet<>();
+
+        int offset = 0;
+        int batchSize = size;
+        while (result.size() < size) {
+            List<SalesTrendTracker.TrendEntry> entries = salesTrendTracker.top(window, offset, batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            Map<Long, Product> products = productRepository.findAllByIdInWithGraph(
+                            entries.stream().map(SalesTrendTracker.TrendEntry::productId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, p -> p));
+
+            for (SalesTrendTracker.TrendEntry entry : entries) {
+                Product product = products.get(entry.productId());
+                if (product != null && eligible.test(product) && seen.add(product.getId())) {
+                    result.add(new TrendingProduct(product, entry.quantity()));
+                    if (result.size() >= size) {
+                        break;
+                    }
+                }
+            }
+            if (entries.size() < batchSize) {
+                break;
+            }
+            offset += entries.size();
+            // Bị lọc nhiều thì lô sau lớn hơn, để số query không tăng theo số hạng bị bỏ
+            batchSize = Math.min(batchSize * 2, MAX_LIMIT * 4);
+        }
+        return result;
+    }
+
+    public record TrendingProduct(Product product, int windowSoldCount) {
+    }
+}
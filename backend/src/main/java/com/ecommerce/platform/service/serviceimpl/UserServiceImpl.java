@@ -13,6 +13,7 @@ import com.ecommerce.platform.repository.OrderRepository;
 import com.ecommerce.platform.repository.ReviewRepository;
 import com.ecommerce.platform.repository.UserRepository;
 import com.ecommerce.platform.repository.specification.UserSpecification;
+import com.ecommerce.platform.security.AccountStatusCache;
 import com.ecommerce.platform.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -40,6 +42,8 @@ public class UserServiceImpl implements UserService {
     private final OrderRepository orderRepository;
     private final ReviewRepository reviewRepository;
     private final com.ecommerce.platform.service.RoleService roleService;
+    private final AccountStatusCache accountStatusCache;
+    private final LastLoginWriter lastLoginWriter;
 
     @Override
     public UserResponse createUser(CreateUserRequest request, Long adminId) {
@@ -61,7 +65,9 @@ public class UserServiceImpl implements UserService {
         user.setCreatedBy(adminId);
 
         log.info("User created: {} by admin: {}", user.getEmail(), adminId);
-        return userMapper.toResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        accountStatusCache.onStatusChanged(savedUser.getId(), savedUser.getStatus());
+        return userMapper.toResponse(savedUser);
     }
 
     @Override
@@ -117,19 +123,32 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserResponse adminUpdateUser(Long id, AdminUpdateUserRequest request, Long adminId) {
         User user = findUserByIdIncludeInactive(id);
+        String previousFullName = user.getFullName();
+        User.UserStatus previousStatus = user.getStatus();
 
         userMapper.updateFromAdminRequest(request, user);
 
         if (request.getRole() != null) {
             com.ecommerce.platform.entity.Role role = roleService.getRoleByName(request.getRole());
+            boolean roleChanged = user.getRoles().size() != 1
+                    || user.getRoles().stream().noneMatch(r -> r.getName().equals(role.getName()));
             user.setRoles(java.util.Collections.singleton(role));
+            if (roleChanged) {
+                // Access token đang dùng mang vai trò cũ trong claims
+                accountStatusCache.onRoleChanged(id);
+            }
         }
 
         user.setStatus(parseStatus(request.getStatus()));
         user.setUpdatedBy(adminId);
 
         log.info("User {} updated by admin: {}", id, adminId);
-        return userMapper.toResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        if (savedUser.getStatus() != previousStatus) {
+            accountStatusCache.onStatusChanged(id, savedUser.getStatus());
+        }
+        refreshReviewSearchDocuments(savedUser, previousFullName);
+        return userMapper.toResponse(savedUser);
     }
 
     @Override
@@ -139,7 +158,9 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedBy(adminId);
 
         log.info("User {} status changed to {} by admin: {}", id, status, adminId);
-        return userMapper.toResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        accountStatusCache.onStatusChanged(id, savedUser.getStatus());
+        return userMapper.toResponse(savedUser);
     }
 
     @Override
@@ -149,6 +170,7 @@ public class UserServiceImpl implements UserService {
         user.setStatus(User.UserStatus.INACTIVE);
         user.setUpdatedBy(adminId);
         userRepository.save(user);
+        accountStatusCache.onStatusChanged(id, User.UserStatus.INACTIVE);
 
         log.info("User {} soft deleted (set to INACTIVE) by admin: {}", id, adminId);
     }
@@ -170,6 +192,9 @@ public class UserServiceImpl implements UserService {
             case "DELETE" -> userRepository.bulkSoftDelete(foundIds, adminId);
             default -> throw new BadRequestException("Invalid action: " + action);
         };
+        accountStatusCache.onStatusChanged(foundIds,
+                "ACTIVATE".equals(action) ? User.UserStatus.ACTIVE
+                        : "BAN".equals(action) ? User.UserStatus.BANNED : User.UserStatus.INACTIVE);
 
         log.info("Bulk action {} performed on {} users by admin: {}", action, successCount, adminId);
         return userMapper.toBulkActionResponse(userIds.size(), successCount, failedIds.size(), failedIds, action);
@@ -193,7 +218,17 @@ public class UserServiceImpl implements UserService {
                 userRepository.countByCreatedAtAfterAndStatusNot(today, User.UserStatus.INACTIVE),
                 userRepository.countByCreatedAtAfterAndStatusNot(weekAgo, User.UserStatus.INACTIVE),
                 userRepository.countByCreatedAtAfterAndStatusNot(monthAgo, User.UserStatus.INACTIVE),
-                userRepository.countByLastLoginAtAfterAndStatusNot(today, User.UserStatus.INACTIVE));
+                countLoggedInSince(today));
+    }
+
+    // Số user đăng nhập sau `since`, cộng cả các lần đăng nhập còn nằm trong buffer chưa ghi xuống DB
+    private long countLoggedInSince(LocalDateTime since) {
+        long count = userRepository.countByLastLoginAtAfterAndStatusNot(since, User.UserStatus.INACTIVE);
+        java.util.Set<Long> pendingIds = lastLoginWriter.getPendingUserIdsSince(since);
+        if (!pendingIds.isEmpty()) {
+            count += userRepository.countNotLoggedInSince(pendingIds, since, User.UserStatus.INACTIVE);
+        }
+        return count;
     }
 
     @Override
@@ -205,12 +240,22 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDetailResponse updateMyProfile(Long userId, UpdateProfileRequest request) {
         User user = findUserById(userId);
+        String previousFullName = user.getFullName();
 
         userMapper.updateFromProfileRequest(request, user);
         user.setUpdatedBy(userId);
 
         log.info("User {} updated their profile", userId);
-        return buildUserDetailResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        refreshReviewSearchDocuments(savedUser, previousFullName);
+        return buildUserDetailResponse(savedUser);
+    }
+
+    // Review moderation search includes the customer name
+    private void refreshReviewSearchDocuments(User user, String previousFullName) {
+        if (!java.util.Objects.equals(previousFullName, user.getFullName())) {
+            reviewRepository.refreshSearchDocumentsForCustomer(user.getId(), user.getFullName());
+        }
     }
 
     @Override
@@ -232,12 +277,10 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void updateLastLogin(Long userId, String ipAddress) {
-        userRepository.findByIdAndStatusNot(userId, User.UserStatus.INACTIVE).ifPresent(user -> {
-            user.setLastLoginAt(LocalDateTime.now());
-            user.setLastLoginIp(ipAddress);
-            userRepository.save(user);
-        });
+        // Ghi gom theo lô (LastLoginWriter), không khóa dòng users trong lúc đăng nhập
+        lastLoginWriter.record(userId, ipAddress);
     }
 
     private User findUserById(Long id) {
@@ -283,8 +326,16 @@ public class UserServiceImpl implements UserService {
         enrichResponseWithRoleStatistics(response, user);
         enrichResponseWithAuditNames(response, user);
 
-        response.setLastActivityStatus(calculateLastActivityStatus(user.getLastLoginAt()));
-        response.setIsOnline(isUserOnline(user.getLastLoginAt()));
+        LocalDateTime lastLoginAt = user.getLastLoginAt();
+        LastLoginWriter.LoginMark pendingLogin = lastLoginWriter.getPending(user.getId());
+        if (pendingLogin != null && (lastLoginAt == null || pendingLogin.at().isAfter(lastLoginAt))) {
+            lastLoginAt = pendingLogin.at();
+            response.setLastLoginAt(lastLoginAt);
+            response.setLastLoginIp(pendingLogin.ipAddress());
+        }
+
+        response.setLastActivityStatus(calculateLastActivityStatus(lastLoginAt));
+        response.setIsOnline(isUserOnline(lastLoginAt));
 
         return response;
     }
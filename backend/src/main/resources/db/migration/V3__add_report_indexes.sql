@@ -0,0 +1,26 @@
+-- Migration V3: Composite indexes for reporting queries
+-- Report queries filter on half-open ranges over created_at (created_at >= :from AND created_at < :to),
+-- optionally combined with an order status, so both column orders are useful:
+--   (created_at, status) -> date-range scans, grouped by status (dashboard, export without status)
+--   (status, created_at) -> a single status within a date range (export by status, countByStatus)
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_order_created_status
+    ON "ecommerce-platform".orders (created_at, status);
+
+CREATE INDEX IF NOT EXISTS idx_order_status_created
+    ON "ecommerce-platform".orders (status, created_at);
+
+-- Payment status stats also filter payments by created_at
+CREATE INDEX IF NOT EXISTS idx_payment_created_status
+    ON "ecommerce-platform".payments (created_at, status);
+
+ANALYZE "ecommerce-platform".orders;
+ANALYZE "ecommerce-platform".payments;
+
+COMMIT;
+
+-- Verify index usage, e.g.:
+-- EXPLAIN SELECT count(*) FROM "ecommerce-platform".orders
+--   WHERE created_at >= '2025-01-01' AND created_at < '2026-01-01' AND status = 'DELIVERED';
@@ -0,0 +1,40 @@
+-- Migration V4: Daily reporting rollups
+-- One row per (day, order status, payment status, payment method). Maintained incrementally by
+-- ReportRollupService in the same transaction as order/payment state changes; rebuilt nightly for the
+-- last few days and on demand via POST /api/reports/rollups/rebuild.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS "ecommerce-platform".report_daily_rollups (
+    id             BIGSERIAL PRIMARY KEY,
+    report_date    DATE           NOT NULL,
+    order_status   VARCHAR(20)    NOT NULL,
+    payment_status VARCHAR(20)    NOT NULL,
+    payment_method VARCHAR(20)    NOT NULL,
+    order_count    BIGINT         NOT NULL DEFAULT 0,
+    subtotal       NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    total_amount   NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    tax_amount     NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    updated_at     TIMESTAMP,
+    CONSTRAINT uk_report_daily_rollup_key UNIQUE (report_date, order_status, payment_status, payment_method)
+);
+
+-- Backfill from existing orders
+INSERT INTO "ecommerce-platform".report_daily_rollups
+    (report_date, order_status, payment_status, payment_method,
+     order_count, subtotal, total_amount, tax_amount, updated_at)
+SELECT CAST(o.created_at AS date),
+       o.status,
+       COALESCE(p.status, 'PENDING'),
+       COALESCE(p.method, 'NONE'),
+       COUNT(*),
+       COALESCE(SUM(o.subtotal), 0),
+       COALESCE(SUM(o.total_amount), 0),
+       COALESCE(SUM(o.tax_amount), 0),
+       now()
+FROM "ecommerce-platform".orders o
+LEFT JOIN "ecommerce-platform".payments p ON p.order_id = o.id
+GROUP BY CAST(o.created_at AS date), o.status, COALESCE(p.status, 'PENDING'), COALESCE(p.method, 'NONE')
+ON CONFLICT (report_date, order_status, payment_status, payment_method) DO NOTHING;
+
+COMMIT;
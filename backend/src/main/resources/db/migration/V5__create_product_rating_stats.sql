@@ -0,0 +1,37 @@
+-- Migration V5: Denormalized rating histogram per product
+-- One row per product with ACTIVE reviews: counts per rating 1..5, rating sum and count.
+-- Maintained incrementally by ProductRatingStatsService in the same transaction as review changes;
+-- recomputed nightly with a single GROUP BY over reviews.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS "ecommerce-platform".product_rating_stats (
+    product_id   BIGINT PRIMARY KEY,
+    rating_1     BIGINT NOT NULL DEFAULT 0,
+    rating_2     BIGINT NOT NULL DEFAULT 0,
+    rating_3     BIGINT NOT NULL DEFAULT 0,
+    rating_4     BIGINT NOT NULL DEFAULT 0,
+    rating_5     BIGINT NOT NULL DEFAULT 0,
+    rating_sum   BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMP
+);
+
+-- Backfill from existing reviews
+INSERT INTO "ecommerce-platform".product_rating_stats
+    (product_id, rating_1, rating_2, rating_3, rating_4, rating_5, rating_sum, rating_count, updated_at)
+SELECT r.product_id,
+       COUNT(*) FILTER (WHERE r.rating = 1),
+       COUNT(*) FILTER (WHERE r.rating = 2),
+       COUNT(*) FILTER (WHERE r.rating = 3),
+       COUNT(*) FILTER (WHERE r.rating = 4),
+       COUNT(*) FILTER (WHERE r.rating = 5),
+       COALESCE(SUM(r.rating), 0),
+       COUNT(*),
+       now()
+FROM "ecommerce-platform".reviews r
+WHERE r.status = 'ACTIVE'
+GROUP BY r.product_id
+ON CONFLICT (product_id) DO NOTHING;
+
+COMMIT;
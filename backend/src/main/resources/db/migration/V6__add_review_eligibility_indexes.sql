@@ -0,0 +1,23 @@
+-- Migration V6: Indexes for review eligibility checks
+-- "Has this customer received this product in an order they have not reviewed yet?" is answered by a
+-- single EXISTS-style query (ReviewRepository.findReviewableOrderIds / isReviewable):
+--   orders (customer_id, status)                -> the customer's DELIVERED orders
+--   order_items (order_id, product_id)          -> does the order contain the product
+--   reviews (customer_id, product_id, order_id) -> NOT EXISTS probe for an existing review
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_order_customer_status
+    ON "ecommerce-platform".orders (customer_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_order_item_order_product
+    ON "ecommerce-platform".order_items (order_id, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_review_customer_product_order
+    ON "ecommerce-platform".reviews (customer_id, product_id, order_id);
+
+ANALYZE "ecommerce-platform".orders;
+ANALYZE "ecommerce-platform".order_items;
+ANALYZE "ecommerce-platform".reviews;
+
+COMMIT;
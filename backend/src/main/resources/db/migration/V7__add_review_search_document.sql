@@ -0,0 +1,26 @@
+-- Migration V7: Denormalized search document for admin review moderation search
+-- reviews.search_document = lower(comment + product name + customer name). It is set by the Review entity
+-- on insert/update and refreshed in bulk when a product or customer name changes (ReviewRepository).
+-- Substring search (LIKE '%q%') is served by a trigram GIN index instead of scanning and joining.
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE "ecommerce-platform".reviews
+    ADD COLUMN IF NOT EXISTS search_document TEXT;
+
+UPDATE "ecommerce-platform".reviews r
+SET search_document = lower(concat_ws(' ', r.comment, p.name, u.full_name))
+FROM "ecommerce-platform".products p, "ecommerce-platform".users u
+WHERE p.id = r.product_id AND u.id = r.customer_id;
+
+CREATE INDEX IF NOT EXISTS idx_review_search_document_trgm
+    ON "ecommerce-platform".reviews USING gin (search_document gin_trgm_ops);
+
+ANALYZE "ecommerce-platform".reviews;
+
+COMMIT;
+
+-- Verify index usage, e.g.:
+-- EXPLAIN SELECT id FROM "ecommerce-platform".reviews WHERE search_document LIKE '%giao hàng nhanh%';
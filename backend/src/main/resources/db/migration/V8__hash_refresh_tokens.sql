@@ -0,0 +1,48 @@
+-- Migration V8: Refresh tokens stored and looked up by hash, with indexes for revocation and purging
+-- refresh_tokens.token_hash = SHA-256 hex of the token handed to the client; the raw token is no longer stored.
+--   token_hash (unique)  -> lookup on refresh/logout (RefreshTokenRepository.findByTokenHash)
+--   (user_id, revoked)   -> revokeAllByUserId and the per-user cap on live tokens
+--   expiry_date          -> scheduled batched purge of expired tokens
+-- A partial index on revoked rows lets the purge find revoked tokens without scanning live ones.
+-- The application already backfills token_hash and clears token at startup (RefreshTokenServiceImpl),
+-- so this script can run at any time after deploying; it only finishes the job and drops the old column.
+
+BEGIN;
+
+ALTER TABLE "ecommerce-platform".refresh_tokens
+    ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64);
+
+UPDATE "ecommerce-platform".refresh_tokens
+SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+WHERE token_hash IS NULL AND token IS NOT NULL;
+
+-- Neither hash nor token: cannot be looked up any more
+DELETE FROM "ecommerce-platform".refresh_tokens
+WHERE token_hash IS NULL;
+
+ALTER TABLE "ecommerce-platform".refresh_tokens
+    ALTER COLUMN token_hash SET NOT NULL;
+
+-- Drops the old unique constraint on token as well
+ALTER TABLE "ecommerce-platform".refresh_tokens
+    DROP COLUMN IF EXISTS token;
+
+-- Already unusable: remove before building the indexes
+DELETE FROM "ecommerce-platform".refresh_tokens
+WHERE revoked = true OR expiry_date < now();
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_token_hash
+    ON "ecommerce-platform".refresh_tokens (token_hash);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_user_revoked
+    ON "ecommerce-platform".refresh_tokens (user_id, revoked);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry
+    ON "ecommerce-platform".refresh_tokens (expiry_date);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_revoked
+    ON "ecommerce-platform".refresh_tokens (id) WHERE revoked = true;
+
+ANALYZE "ecommerce-platform".refresh_tokens;
+
+COMMIT;
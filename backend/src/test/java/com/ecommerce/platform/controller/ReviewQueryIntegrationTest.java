@@ -0,0 +1,120 @@
+package com.ecommerce.platform.controller;
+
+import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.entity.Review;
+import com.ecommerce.platform.entity.User;
+import com.ecommerce.platform.repository.ProductRepository;
+import com.ecommerce.platform.repository.ReviewRepository;
+import com.ecommerce.platform.support.IntegrationTestSupport;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Đọc review: một trang 50 review tốn tối đa 3 câu lệnh (trang, count, tham chiếu), và các đường đọc một review
+ * dựng xong response trong service. Tắt open-in-view để mọi lazy load ngoài transaction đều lỗi thay vì
+ * âm thầm chạy thêm câu lệnh.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = "spring.jpa.open-in-view=false")
+class ReviewQueryIntegrationTest extends IntegrationTestSupport {
+
+    private static final int REVIEW_COUNT = 60;
+    private static final String STAFF = "staff@techshop.vn";
+    private static final String CUSTOMER = "customer1@gmail.com";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Product product;
+    private Long reviewId;
+
+    @BeforeAll
+    void seedReviews() {
+        product = productRepository.findByStatusWithGraph(Product.ProductStatus.ACTIVE, PageRequest.of(1, 1))
+                .getContent().get(0);
+
+        List<User> customers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            customers.add(seededUser("customer" + i + "@gmail.com"));
+        }
+
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < REVIEW_COUNT; i++) {
+            reviews.add(Review.builder()
+                    .product(product)
+                    .customer(customers.get(i % customers.size()))
+                    .rating(1 + i % 5)
+                    .comment("Đánh giá thử " + i)
+                    .images(i % 3 == 0 ? List.of("https://example.com/review-" + i + ".jpg") : new ArrayList<>())
+                    .status(Review.ReviewStatus.ACTIVE)
+                    .build());
+        }
+        reviewId = reviewRepository.saveAll(reviews).get(0).getId();
+    }
+
+    @Test
+    void productReviewPageOfFiftyUsesAtMostThreeStatements() throws Exception {
+        RequestCost cost = measure(get("/api/reviews/product/{id}", product.getId()).param("size", "50"));
+
+        assertThat(cost.status()).isEqualTo(200);
+        assertThat(cost.statements()).isLessThanOrEqualTo(3);
+        assertThat(cost.repeatedStatementWarnings()).isZero();
+
+        List<Map<String, Object>> content = JsonPath.read(cost.body(), "$.data.content");
+        assertThat(content).hasSize(50);
+        assertThat(content).allSatisfy(review -> {
+            assertThat(review.get("productName")).isEqualTo(product.getName());
+            assertThat(JsonPath.<String>read(review, "$.customer.fullName")).isNotBlank();
+        });
+        assertThat(content).anySatisfy(review -> assertThat(JsonPath.<List<String>>read(review, "$.images")).isNotEmpty());
+    }
+
+    @Test
+    void reviewDetailIsBuiltInsideTheService() throws Exception {
+        RequestCost cost = measure(get("/api/reviews/{id}", reviewId));
+
+        assertThat(cost.status()).isEqualTo(200);
+        // Review + sản phẩm + khách + ảnh trong một câu; danh mục và vai trò EAGER nạp thêm
+        assertThat(cost.statements()).isLessThanOrEqualTo(5);
+        assertThat(JsonPath.<String>read(cost.body(), "$.data.productName")).isEqualTo(product.getName());
+        assertThat(JsonPath.<String>read(cost.body(), "$.data.customer.fullName")).isNotBlank();
+        assertThat(JsonPath.<List<String>>read(cost.body(), "$.data.images")).hasSize(1);
+    }
+
+    @Test
+    void myReviewsPageUsesAtMostThreeStatements() throws Exception {
+        RequestCost cost = measure(get("/api/reviews/my-reviews").param("size", "50")
+                .header("Authorization", bearer(CUSTOMER)));
+
+        assertThat(cost.status()).isEqualTo(200);
+        assertThat(cost.statements()).isLessThanOrEqualTo(3);
+        assertThat(JsonPath.<List<Object>>read(cost.body(), "$.data.content")).isNotEmpty();
+    }
+
+    @Test
+    void managementPageUsesAtMostThreeStatements() throws Exception {
+        RequestCost cost = measure(get("/api/reviews/management")
+                .param("productId", product.getId().toString())
+                .param("size", "50")
+                .header("Authorization", bearer(STAFF)));
+
+        assertThat(cost.status()).isEqualTo(200);
+        assertThat(cost.statements()).isLessThanOrEqualTo(3);
+        assertThat(JsonPath.<List<Object>>read(cost.body(), "$.data.content")).hasSize(50);
+    }
+}
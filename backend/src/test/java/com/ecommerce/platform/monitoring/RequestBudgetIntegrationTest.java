@@ -0,0 +1,204 @@
+package com.ecommerce.platform.monitoring;
+
+import com.ecommerce.platform.dto.request.AddToCartRequest;
+import com.ecommerce.platform.dto.request.CreateReviewRequest;
+import com.ecommerce.platform.dto.request.PlaceOrderRequest;
+import com.ecommerce.platform.dto.response.CartItemResponse;
+import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.repository.ProductRepository;
+import com.ecommerce.platform.service.CartService;
+import com.ecommerce.platform.service.OrderService;
+import com.ecommerce.platform.service.ReviewService;
+import com.ecommerce.platform.support.IntegrationTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Giới hạn theo endpoint cho số câu lệnh JDBC và số byte cấp phát trên luồng request, đo bằng
+ * RequestMetricsFilter trên dữ liệu DataSeeder, cho cả đường đọc lẫn đường ghi (giỏ hàng, đặt hàng, review).
+ * Không endpoint nào được lặp một dạng câu lệnh quá monitoring.n-plus-one.threshold lần.
+ * Các ca chạy theo thứ tự khai báo: đặt hàng từ giỏ chạy sau các ca đọc/sửa giỏ.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RequestBudgetIntegrationTest extends IntegrationTestSupport {
+
+    private static final long MB = 1024 * 1024;
+
+    private static final String ADMIN = "admin@techshop.vn";
+    private static final String STAFF = "staff@techshop.vn";
+    private static final String CUSTOMER = "customer1@gmail.com";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Product> products;
+    private Long productId;
+    private List<Long> cartItemIds;
+    private Long orderId;
+    private Long[] reviewableOrderIds;
+    private Long reviewId;
+
+    @BeforeAll
+    void seedCustomerData() {
+        products = productRepository
+                .findByStatusWithGraph(Product.ProductStatus.ACTIVE, PageRequest.of(0, 20))
+                .getContent().stream()
+                .filter(product -> product.getStockQuantity() > 10)
+                .limit(6)
+                .toList();
+        productId = products.get(0).getId();
+
+        Long customerId = seededUser(CUSTOMER).getId();
+        for (Product product : products.subList(0, 3)) {
+            cartService.addToCart(customerId, new AddToCartRequest(product.getId(), 1));
+        }
+        cartItemIds = cartService.getCart(customerId).getItems().stream().map(CartItemResponse::getId).toList();
+
+        orderId = placeOrder(customerId, productId);
+        // Hai đơn đã giao cho ca tạo review (lần làm nóng và lần đo), một đơn có sẵn review cho ca trả lời
+        reviewableOrderIds = new Long[] {
+                deliveredOrder(customerId, products.get(3).getId()),
+                deliveredOrder(customerId, products.get(4).getId())
+        };
+        Long repliedOrderId = deliveredOrder(customerId, products.get(5).getId());
+        reviewId = reviewService.createReview(customerId, CreateReviewRequest.builder()
+                .productId(products.get(5).getId())
+                .orderId(repliedOrderId)
+                .rating(4)
+                .comment("Sản phẩm tốt")
+                .build()).getId();
+    }
+
+    Stream<Budget> budgets() {
+        return Stream.of(
+                // Products
+                new Budget("GET /api/products", get("/api/products").param("size", "20"), null, 6, 16 * MB),
+                new Budget("GET /api/products/{id}", get("/api/products/{id}", productId), null, 4, 8 * MB),
+                new Budget("GET /api/products/search", get("/api/products/search").param("keyword", "a"), null, 8, 16 * MB),
+                new Budget("GET /api/products/management", get("/api/products/management").param("size", "20"), STAFF, 6, 16 * MB),
+                // Categories
+                new Budget("GET /api/categories", get("/api/categories").param("size", "20"), null, 8, 16 * MB),
+                new Budget("GET /api/categories/hierarchy", get("/api/categories/hierarchy"), null, 12, 32 * MB),
+                // Cart
+                new Budget("GET /api/cart", get("/api/cart"), CUSTOMER, 6, 8 * MB),
+                new Budget("POST /api/cart/items", json(post("/api/cart/items"),
+                        "{\"productId\":" + productId + ",\"quantity\":1}"), CUSTOMER, 12, 16 * MB),
+                new Budget("PUT /api/cart/items/{id}", put("/api/cart/items/{id}", cartItemIds.get(0))
+                        .param("quantity", "2"), CUSTOMER, 12, 16 * MB),
+                // Orders: làm nóng bằng mua ngay, đo đặt hàng từ 3 dòng của giỏ
+                new Budget("POST /api/orders",
+                        json(post("/api/orders"), placeOrderBody("\"productId\":" + productId + ",\"quantity\":1")),
+                        json(post("/api/orders"), placeOrderBody("\"cartItemIds\":" + cartItemIds)),
+                        CUSTOMER, 25, 16 * MB),
+                new Budget("GET /api/orders/{id}", get("/api/orders/{id}", orderId), CUSTOMER, 8, 8 * MB),
+                new Budget("GET /api/orders/my-orders", get("/api/orders/my-orders").param("size", "20"), CUSTOMER, 8, 16 * MB),
+                new Budget("GET /api/orders/management", get("/api/orders/management").param("size", "30"), STAFF, 10, 16 * MB),
+                // Reviews
+                new Budget("GET /api/reviews/product/{id}", get("/api/reviews/product/{id}", productId), null, 3, 8 * MB),
+                new Budget("GET /api/reviews/management", get("/api/reviews/management").param("size", "20"), STAFF, 4, 16 * MB),
+                new Budget("POST /api/reviews",
+                        json(post("/api/reviews"), reviewBody(products.get(3).getId(), reviewableOrderIds[0])),
+                        json(post("/api/reviews"), reviewBody(products.get(4).getId(), reviewableOrderIds[1])),
+                        CUSTOMER, 15, 16 * MB),
+                new Budget("PUT /api/reviews/{id}/reply", json(put("/api/reviews/{id}/reply", reviewId),
+                        "{\"reply\":\"Cảm ơn bạn đã đánh giá\"}"), STAFF, 6, 8 * MB),
+                // Reports (đo khi cache dashboard trống; câu lệnh trên pool dashboard cũng được tính)
+                new Budget("GET /api/reports/dashboard", get("/api/reports/dashboard"), ADMIN, 12, 16 * MB),
+                new Budget("GET /api/reports/orders/status", get("/api/reports/orders/status"), ADMIN, 4, 8 * MB),
+                new Budget("GET /api/reports/categories/sales", get("/api/reports/categories/sales"), ADMIN, 3, 16 * MB),
+                new Budget("GET /api/reports/products/trending", get("/api/reports/products/trending"), ADMIN, 6, 16 * MB),
+                // Users
+                new Budget("GET /api/admin/users", get("/api/admin/users").param("size", "20"), ADMIN, 4, 8 * MB),
+                new Budget("GET /api/users/me", get("/api/users/me"), CUSTOMER, 8, 8 * MB));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    void staysWithinBudget(Budget budget) throws Exception {
+        if (budget.user() != null) {
+            String authorization = bearer(budget.user());
+            budget.request().header("Authorization", authorization);
+            if (budget.warmUp() != budget.request()) {
+                budget.warmUp().header("Authorization", authorization);
+            }
+        }
+
+        RequestCost cost = measure(budget.warmUp(), budget.request());
+
+        assertThat(cost.status()).as("status: %s", cost.body()).isEqualTo(200);
+        assertThat(cost.statements()).as("JDBC statements").isLessThanOrEqualTo(budget.maxStatements());
+        assertThat(cost.allocatedBytes()).as("bytes allocated").isLessThanOrEqualTo(budget.maxAllocatedBytes());
+        assertThat(cost.repeatedStatementWarnings()).as("N+1 warnings").isZero();
+    }
+
+    private Long placeOrder(Long customerId, Long productId) {
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setProductId(productId);
+        request.setQuantity(1);
+        request.setShippingName("Khách Test");
+        request.setShippingPhone("0900000000");
+        request.setShippingAddress("1 Đường Test, Quận 1");
+        request.setPaymentMethod("COD");
+        return orderService.placeOrder(customerId, request).get(0).getId();
+    }
+
+    private Long deliveredOrder(Long customerId, Long productId) {
+        Long id = placeOrder(customerId, productId);
+        jdbcTemplate.update("UPDATE \"ecommerce-platform\".orders SET status = 'DELIVERED' WHERE id = ?", id);
+        return id;
+    }
+
+    private static String placeOrderBody(String items) {
+        return "{" + items + ",\"shippingName\":\"Khách Test\",\"shippingPhone\":\"0900000000\","
+                + "\"shippingAddress\":\"1 Đường Test, Quận 1\",\"paymentMethod\":\"COD\"}";
+    }
+
+    private static String reviewBody(Long productId, Long orderId) {
+        return "{\"productId\":" + productId + ",\"orderId\":" + orderId + ",\"rating\":5,\"comment\":\"Giao nhanh\"}";
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    record Budget(String name, MockHttpServletRequestBuilder warmUp, MockHttpServletRequestBuilder request,
+                  String user, long maxStatements, long maxAllocatedBytes) {
+
+        Budget(String name, MockHttpServletRequestBuilder request, String user,
+               long maxStatements, long maxAllocatedBytes) {
+            this(name, request, request, user, maxStatements, maxAllocatedBytes);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
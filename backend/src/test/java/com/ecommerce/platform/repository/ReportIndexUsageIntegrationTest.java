@@ -0,0 +1,84 @@
+package com.ecommerce.platform.repository;
+
+import com.ecommerce.platform.support.IntegrationTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy V3__add_report_indexes.sql rồi EXPLAIN các điều kiện lọc mà truy vấn báo cáo dùng (khoảng nửa mở trên
+ * created_at, có hoặc không kèm status). Dữ liệu seed nhỏ nên planner mặc định chọn Seq Scan; tắt enable_seqscan
+ * để kiểm tra rằng điều kiện có thể đi qua index (Index Cond), tức không còn bọc cột trong hàm.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReportIndexUsageIntegrationTest extends IntegrationTestSupport {
+
+    private static final String RANGE = "created_at >= TIMESTAMP '2025-01-01' AND created_at < TIMESTAMP '2026-01-01'";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void applyMigration() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V3__add_report_indexes.sql"))
+                .execute(dataSource);
+    }
+
+    @Test
+    void ordersInRangeGroupedByStatusUseCreatedStatusIndex() {
+        String plan = explain("SELECT status, count(*) FROM \"ecommerce-platform\".orders WHERE " + RANGE
+                + " GROUP BY status");
+
+        assertThat(plan).contains("idx_order_created_status").contains("Index Cond");
+    }
+
+    @Test
+    void ordersOfOneStatusInRangeUseAReportIndex() {
+        String plan = explain("SELECT count(*) FROM \"ecommerce-platform\".orders WHERE status = 'DELIVERED' AND "
+                + RANGE);
+
+        assertThat(plan).containsAnyOf("idx_order_status_created", "idx_order_created_status")
+                .contains("Index Cond");
+    }
+
+    @Test
+    void paymentsInRangeUseCreatedStatusIndex() {
+        String plan = explain("SELECT status, count(*) FROM \"ecommerce-platform\".payments WHERE " + RANGE
+                + " GROUP BY status");
+
+        assertThat(plan).contains("idx_payment_created_status").contains("Index Cond");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+}
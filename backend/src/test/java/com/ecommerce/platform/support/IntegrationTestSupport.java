@@ -0,0 +1,132 @@
+package com.ecommerce.platform.support;
+
+import com.ecommerce.platform.ai.service.EmbeddingService;
+import com.ecommerce.platform.entity.User;
+import com.ecommerce.platform.repository.UserRepository;
+import com.ecommerce.platform.security.JwtTokenProvider;
+import com.ecommerce.platform.service.DashboardService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Nền cho test tích hợp: PostgreSQL thật (Testcontainers, dùng chung cho cả bộ test), dữ liệu từ DataSeeder
+ * (profile "dev"), MockMvc đi qua toàn bộ filter, kể cả RequestMetricsFilter. Bean AI được thay bằng mock.
+ * Cần Docker: thiếu Docker thì bộ test lỗi chứ không bị bỏ qua, để build không "xanh" khi chưa kiểm tra giới hạn nào.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({ "dev", "test" })
+public abstract class IntegrationTestSupport {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/test-init.sql");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        if (!DockerClientFactory.instance().isDockerAvailable()) {
+            throw new IllegalStateException("Integration tests need Docker for PostgreSQL (Testcontainers)");
+        }
+        POSTGRES.start();
+        String url = POSTGRES.getJdbcUrl();
+        registry.add("spring.datasource.url",
+                () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=ecommerce-platform");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @MockitoBean
+    protected EmbeddingService embeddingService;
+
+    @MockitoBean
+    protected ChatClient.Builder chatClientBuilder;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected MeterRegistry meterRegistry;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    protected DashboardService dashboardService;
+
+    protected User seededUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalStateException("Not seeded: " + email));
+    }
+
+    protected String bearer(String email) {
+        return bearer(seededUser(email));
+    }
+
+    protected String bearer(User user) {
+        String role = user.getRoles().iterator().next().getName();
+        return "Bearer " + jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail(), role);
+    }
+
+    /**
+     * Chạy request một lần để làm nóng JVM (nạp class, query plan), xóa cache tầng ứng dụng, rồi đo lần thứ hai
+     * qua số liệu app.request.* mà RequestMetricsFilter ghi. Lần đo vì vậy luôn chạy đủ các query mà endpoint
+     * có cache (dashboard, doanh số danh mục) phải chạy khi cache trống.
+     */
+    protected RequestCost measure(MockHttpServletRequestBuilder request) throws Exception {
+        return measure(request, request);
+    }
+
+    /**
+     * Như {@link #measure(MockHttpServletRequestBuilder)} nhưng làm nóng bằng một request khác cùng endpoint,
+     * cho các thao tác ghi không lặp lại được (tạo review cho cùng một đơn, đặt hàng từ cùng một giỏ).
+     */
+    protected RequestCost measure(MockHttpServletRequestBuilder warmUp, MockHttpServletRequestBuilder request)
+            throws Exception {
+        mockMvc.perform(warmUp).andReturn();
+        dashboardService.evictCache();
+
+        double statements = summaryTotal("app.request.db.statements");
+        double entities = summaryTotal("app.request.db.entities.hydrated");
+        double allocated = summaryTotal("app.request.allocated.bytes");
+        double repeated = counterTotal("app.request.db.n_plus_one");
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+
+        return new RequestCost(result.getResponse().getStatus(),
+                (long) (summaryTotal("app.request.db.statements") - statements),
+                (long) (summaryTotal("app.request.db.entities.hydrated") - entities),
+                (long) (summaryTotal("app.request.allocated.bytes") - allocated),
+                (long) (counterTotal("app.request.db.n_plus_one") - repeated),
+                result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private double summaryTotal(String name) {
+        return meterRegistry.find(name).summaries().stream().mapToDouble(DistributionSummary::totalAmount).sum();
+    }
+
+    private double counterTotal(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    protected record RequestCost(int status, long statements, long entitiesHydrated, long allocatedBytes,
+                                 long repeatedStatementWarnings, String body) {
+    }
+}
@@ -0,0 +1,2 @@
+CREATE SCHEMA IF NOT EXISTS "ecommerce-platform";
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,118 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.entity.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dữ liệu mẫu dựng trong bộ nhớ (không cần DB) cho các benchmark.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Category category() {
+        return Category.builder()
+                .id(3L)
+                .name("Điện thoại")
+                .slug("dien-thoai")
+                .level(0)
+                .isActive(true)
+                .build();
+    }
+
+    static List<Product> products(int count) {
+        Category category = category();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(Product.builder()
+                    .id((long) i)
+                    .name("Điện thoại Galaxy A" + i + " 128GB")
+                    .description("Màn hình 6.5 inch, pin 5000mAh, camera 50MP, sạc nhanh 25W. Mẫu số " + i)
+                    .price(BigDecimal.valueOf(4_990_000L + i * 100_000L))
+                    .discountPrice(i % 3 == 0 ? BigDecimal.valueOf(4_490_000L + i * 100_000L) : null)
+                    .stockQuantity(10 + i)
+                    .thumbnail("https://cdn.example.com/products/" + i + ".jpg")
+                    .category(category)
+                    .status(Product.ProductStatus.ACTIVE)
+                    .averageRating(3.5 + (i % 15) / 10.0)
+                    .totalReviews(20 + i)
+                    .soldCount(100 + i * 7)
+                    .createdAt(LocalDateTime.of(2025, 1, 1, 9, 0))
+                    .build());
+        }
+        return products;
+    }
+
+    static User customer() {
+        return User.builder()
+                .id(42L)
+                .email("khachhang@example.com")
+                .fullName("Nguyễn Văn An")
+                .build();
+    }
+
+    static Order order(int itemCount) {
+        Order order = Order.builder()
+                .id(1001L)
+                .orderCode("ORD-20250101-1001")
+                .customer(customer())
+                .subtotal(BigDecimal.valueOf(25_000_000L))
+                .shippingFee(BigDecimal.valueOf(30_000L))
+                .taxAmount(BigDecimal.ZERO)
+                .totalAmount(BigDecimal.valueOf(25_030_000L))
+                .shippingName("Nguyễn Văn An")
+                .shippingPhone("0901234567")
+                .shippingAddress("12 Lê Lợi, Quận 1, TP. Hồ Chí Minh")
+                .status(Order.OrderStatus.DELIVERED)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 10, 30))
+                .build();
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (Product product : products(itemCount)) {
+            items.add(OrderItem.builder()
+                    .id(product.getId())
+                    .order(order)
+                    .product(product)
+                    .productName(product.getName())
+                    .productThumbnail(product.getThumbnail())
+                    .quantity(2)
+                    .unitPrice(product.getPrice())
+                    .totalPrice(product.getPrice().multiply(BigDecimal.valueOf(2)))
+                    .build());
+        }
+        order.setItems(items);
+        order.setPayment(Payment.builder()
+                .id(501L)
+                .transactionId("TXN1001")
+                .order(order)
+                .amount(order.getTotalAmount())
+                .method(Payment.PaymentMethod.VNPAY)
+                .status(Payment.PaymentStatus.COMPLETED)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 10, 31))
+                .build());
+        return order;
+    }
+
+    static Cart cart(int itemCount) {
+        Cart cart = Cart.builder()
+                .id(77L)
+                .customer(customer())
+                .build();
+        List<CartItem> items = new ArrayList<>(itemCount);
+        for (Product product : products(itemCount)) {
+            items.add(CartItem.builder()
+                    .id(product.getId())
+                    .cart(cart)
+                    .product(product)
+                    .quantity(1)
+                    .unitPrice(product.getDiscountPrice() != null ? product.getDiscountPrice() : product.getPrice())
+                    .build());
+        }
+        cart.setItems(items);
+        return cart;
+    }
+}
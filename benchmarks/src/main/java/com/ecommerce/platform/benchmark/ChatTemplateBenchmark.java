@@ -0,0 +1,53 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.ai.service.serviceimpl.ChatService;
+import com.ecommerce.platform.dto.request.IntentResult;
+import com.ecommerce.platform.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trả lời chatbot theo template (không gọi LLM): NumberFormat + String.format trên danh sách sản phẩm.
+ * ChatService.buildTemplateResponse là private nên được gọi qua MethodHandle; các dependency không dùng tới để null.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatTemplateBenchmark {
+
+    @Param({"CHEAPEST_PRODUCT", "PRODUCT_SEARCH", "STOCK_CHECK", "PRICE_COMPARE", "REVIEW_QUERY"})
+    public String intentType;
+
+    private ChatService chatService;
+    private MethodHandle buildTemplateResponse;
+    private IntentResult intent;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        chatService = new ChatService(null, null, null, null, null);
+        buildTemplateResponse = MethodHandles.privateLookupIn(ChatService.class, MethodHandles.lookup())
+                .findVirtual(ChatService.class, "buildTemplateResponse",
+                        MethodType.methodType(String.class, IntentResult.class, String.class, List.class));
+        intent = IntentResult.builder()
+                .intent(IntentResult.IntentType.valueOf(intentType))
+                .rawQuery("điện thoại samsung giá rẻ")
+                .keyword("samsung")
+                .quantity(5)
+                .build();
+        products = BenchmarkData.products(10);
+    }
+
+    @Benchmark
+    public String render() throws Throwable {
+        return (String) buildTemplateResponse.invoke(chatService, intent, intent.getRawQuery(), products);
+    }
+}
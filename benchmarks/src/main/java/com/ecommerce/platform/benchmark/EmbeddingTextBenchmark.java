@@ -0,0 +1,30 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product.toEmbeddingText: dựng lại văn bản embedding mỗi khi sản phẩm thay đổi và khi đồng bộ toàn bộ.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingTextBenchmark {
+
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.products(3).get(2);
+    }
+
+    @Benchmark
+    public String toEmbeddingText() {
+        return product.toEmbeddingText();
+    }
+}
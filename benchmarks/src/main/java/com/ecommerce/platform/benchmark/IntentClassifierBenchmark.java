@@ -0,0 +1,59 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.ai.service.serviceimpl.IntentClassifierService;
+import com.ecommerce.platform.dto.request.IntentResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phần không gọi LLM của IntentClassifierService: heuristic từ khóa trong classify() (các câu hỏi được
+ * trả lời trước khi gọi model) và parse() câu trả lời JSON của model.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntentClassifierBenchmark {
+
+    @Param({
+            "Điện thoại Samsung nào rẻ nhất?",
+            "Cho mình xem laptop đắt nhất của cửa hàng",
+            "Trong cửa hàng có bao nhiêu sản phẩm vậy?"
+    })
+    public String message;
+
+    private static final String MODEL_RESPONSE = """
+            ```json
+            {"intent": "PRODUCT_SEARCH", "keyword": "iphone 15", "category": "Điện thoại",
+             "minPrice": "10 triệu", "maxPrice": 25000000, "quantity": null, "rating": 4.5}
+            ```
+            """;
+
+    private IntentClassifierService classifier;
+    private MethodHandle parse;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        classifier = new IntentClassifierService(null, new ObjectMapper());
+        parse = MethodHandles.privateLookupIn(IntentClassifierService.class, MethodHandles.lookup())
+                .findVirtual(IntentClassifierService.class, "parse",
+                        MethodType.methodType(IntentResult.class, String.class, String.class));
+    }
+
+    @Benchmark
+    public IntentResult classifyHeuristic() {
+        return classifier.classify(message);
+    }
+
+    @Benchmark
+    public IntentResult parseModelResponse() throws Throwable {
+        return (IntentResult) parse.invoke(classifier, MODEL_RESPONSE, message);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát hành và xác thực access token (JwtTokenProvider), đường nóng của mọi request đã đăng nhập.
+ * verifyAccessTokenBaseline giữ đường cũ (dựng lại key và parser mỗi lần xác thực) để so sánh trực tiếp.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "ecommerce-platform-secret-key-for-jwt-token-generation-must-be-256-bits-long";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 900_000L, 604_800_000L);
+        token = tokenProvider.generateAccessToken(42L, "khachhang@example.com", "CUSTOMER");
+    }
+
+    @Benchmark
+    public String issueAccessToken() {
+        return tokenProvider.generateAccessToken(42L, "khachhang@example.com", "CUSTOMER");
+    }
+
+    @Benchmark
+    public Claims verifyAccessToken() {
+        return tokenProvider.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims verifyAccessTokenBaseline() {
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return "access".equals(claims.get("type", String.class)) ? claims : null;
+    }
+}
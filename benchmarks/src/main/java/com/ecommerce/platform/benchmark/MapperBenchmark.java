@@ -0,0 +1,67 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.dto.response.CartItemResponse;
+import com.ecommerce.platform.dto.response.OrderResponse;
+import com.ecommerce.platform.dto.response.ProductResponse;
+import com.ecommerce.platform.entity.Cart;
+import com.ecommerce.platform.entity.Order;
+import com.ecommerce.platform.entity.Product;
+import com.ecommerce.platform.mapper.CartMapper;
+import com.ecommerce.platform.mapper.OrderMapper;
+import com.ecommerce.platform.mapper.ProductMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Các mapper MapStruct dùng khi dựng response: trang sản phẩm, chi tiết đơn hàng, giỏ hàng.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"20"})
+    public int size;
+
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+    private CartMapper cartMapper;
+
+    private List<Product> products;
+    private Order order;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        orderMapper = Mappers.getMapper(OrderMapper.class);
+        cartMapper = Mappers.getMapper(CartMapper.class);
+        products = BenchmarkData.products(size);
+        order = BenchmarkData.order(size);
+        cart = BenchmarkData.cart(size);
+    }
+
+    @Benchmark
+    public List<ProductResponse> productPage() {
+        return productMapper.toResponseList(products);
+    }
+
+    @Benchmark
+    public OrderResponse orderDetail() {
+        OrderResponse response = orderMapper.toResponse(order);
+        response.setItems(orderMapper.toOrderItemResponseList(order.getItems()));
+        response.setPayment(orderMapper.toPaymentInfo(order.getPayment()));
+        return response;
+    }
+
+    @Benchmark
+    public List<CartItemResponse> cartItems() {
+        return cartMapper.toCartItemResponseList(cart.getItems());
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.platform.benchmark;
+
+import com.ecommerce.platform.util.VnpayUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ký yêu cầu thanh toán: query VNPay (sắp xếp + URL-encode + HMAC-SHA512) và chữ ký MoMo (HMAC-SHA256).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentSigningBenchmark {
+
+    private static final String SECRET_KEY = "VNPAYSECRETKEYFORBENCHMARK0123456789";
+
+    private VnpayUtil vnpayUtil;
+    private Map<String, String> vnpayParams;
+    private String momoRawSignature;
+
+    @Setup
+    public void setUp() {
+        vnpayUtil = new VnpayUtil();
+        vnpayParams = new HashMap<>();
+        vnpayParams.put("vnp_Version", "2.1.0");
+        vnpayParams.put("vnp_Command", "pay");
+        vnpayParams.put("vnp_TmnCode", "DEMO1234");
+        vnpayParams.put("vnp_CurrCode", "VND");
+        vnpayParams.put("vnp_Locale", "vn");
+        vnpayParams.put("vnp_OrderType", "other");
+        vnpayParams.put("vnp_ReturnUrl", "http://localhost:8080/api/payment/vnpay/callback");
+        vnpayParams.put("vnp_CreateDate", "20250101103000");
+        vnpayParams.put("vnp_ExpireDate", "20250101104500");
+        vnpayParams.put("vnp_TxnRef", "TXN1001");
+        vnpayParams.put("vnp_Amount", "2503000000");
+        vnpayParams.put("vnp_IpAddr", "127.0.0.1");
+        vnpayParams.put("vnp_OrderInfo", "Thanh toan don hang: ORD-20250101-1001");
+
+        momoRawSignature = "accessKey=F8BBA842ECF85&amount=25030000&extraData="
+                + "&ipnUrl=http://localhost:8080/api/payment/momo/ipn&orderId=ORD-20250101-1001"
+                + "&orderInfo=Thanh toan don hang ORD-20250101-1001&partnerCode=MOMO"
+                + "&redirectUrl=http://localhost:5173/payment/result&requestId=1735702200000"
+                + "&requestType=captureWallet";
+    }
+
+    @Benchmark
+    public String vnpayQueryAndSign() {
+        String query = vnpayUtil.dataToappendUrl(vnpayParams);
+        return query + "&vnp_SecureHash=" + VnpayUtil.hmacSHA512(SECRET_KEY, query);
+    }
+
+    @Benchmark
+    public String momoSign() {
+        return vnpayUtil.hmacSHA256(SECRET_KEY, momoRawSignature);
+    }
+}